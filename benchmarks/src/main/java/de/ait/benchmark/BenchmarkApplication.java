@@ -0,0 +1,77 @@
+package de.ait.benchmark;
+
+import de.ait.JavaProgLessonsPro59Application;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Starts the application in-process for the benchmarks that need Spring, with
+ * SQL logging, outbox dispatching and real SMTP switched off.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.jpa.show-sql=false",
+                "--app.mail.outbox.dispatcher.enabled=false",
+                "--app.mail.from=dealer@bench.local",
+                "--logging.level.root=WARN",
+                // logback-spring.xml задаёт уровни для своих пакетов явно, root их не перекрывает
+                "--logging.level.org.springframework=WARN",
+                "--logging.level.de.ait=WARN"));
+        args.addAll(Arrays.asList(extraArgs));
+
+        SpringApplication application = new SpringApplication(JavaProgLessonsPro59Application.class);
+        // Письма собираются и кодируются полностью, но никуда не уходят
+        application.addInitializers(context ->
+                context.getBeanFactory().registerSingleton("javaMailSender", new DiscardingMailSender()));
+        return application.run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Inserts {@code count} cars in one statement. Brands are "{prefix}0".."{prefix}39",
+     * colors "Color0".."Color24"; status, fuel type and transmission cycle through their values.
+     */
+    static void insertCars(JdbcTemplate jdbcTemplate, String brandPrefix, int count) {
+        jdbcTemplate.update("""
+                INSERT INTO cars (brand, model, production_year, mileage, price,
+                                  status, color, horsepower, fuel_type, transmission)
+                SELECT ? || MOD(X, 40), 'Model ' || MOD(X, 300), 1990 + MOD(X, 35), MOD(X * 7, 300000), 1000 + MOD(X * 13, 99000),
+                       CASE WHEN MOD(X, 5) = 0 THEN 'SOLD' ELSE 'AVAILABLE' END,
+                       'Color' || MOD(X, 25), 60 + MOD(X, 500),
+                       CASE MOD(X, 4) WHEN 0 THEN 'PETROL' WHEN 1 THEN 'DIESEL' WHEN 2 THEN 'HYBRID' ELSE 'ELECTRIC' END,
+                       CASE WHEN MOD(X, 2) = 0 THEN 'MANUAL' ELSE 'AUTOMATIC' END
+                FROM SYSTEM_RANGE(1, ?)
+                """, brandPrefix, count);
+        jdbcTemplate.execute("ANALYZE TABLE cars");
+    }
+
+    private static class DiscardingMailSender extends JavaMailSenderImpl implements JavaMailSender {
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            for (MimeMessage mimeMessage : mimeMessages) {
+                try {
+                    mimeMessage.writeTo(OutputStream.nullOutputStream());
+                } catch (IOException | MessagingException exception) {
+                    throw new MailSendException("Failed to encode message", exception);
+                }
+            }
+        }
+    }
+}
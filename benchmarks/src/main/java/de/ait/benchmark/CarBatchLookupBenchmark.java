@@ -0,0 +1,107 @@
+package de.ait.benchmark;
+
+import de.ait.JavaProgLessonsPro59Application;
+import de.ait.model.Car;
+import de.ait.repository.CarRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Time to load 100 cars over HTTP: one {@code GET /api/cars/batch} call against
+ * 100 sequential {@code GET /api/cars/{id}} calls. The application runs in-process
+ * on a random port with its in-memory H2. {@code findById} is cached, so the
+ * sequential variant is measured at its best case.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CarBatchLookupBenchmark {
+
+    private static final int SEEDED_CARS = 1000;
+    private static final int IDS_PER_PAGE = 100;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private List<Long> ids;
+    private URI batchUri;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(JavaProgLessonsPro59Application.class,
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--app.mail.outbox.dispatcher.enabled=false",
+                "--logging.level.root=WARN");
+
+        List<Car> cars = new ArrayList<>(SEEDED_CARS);
+        for (int i = 0; i < SEEDED_CARS; i++) {
+            cars.add(new Car("Brand" + (i % 20), "Model" + i, 2015 + i % 10, 10000 + i, 20000 + i,
+                    "AVAILABLE", "Black", 150, "PETROL", "AUTOMATIC"));
+        }
+        List<Car> saved = context.getBean(CarRepository.class).saveAll(cars);
+
+        // Каждая десятая машина — как на странице сравнения: id вразнобой по всей таблице
+        ids = new ArrayList<>(IDS_PER_PAGE);
+        for (int i = 0; i < IDS_PER_PAGE; i++) {
+            ids.add(saved.get(i * (SEEDED_CARS / IDS_PER_PAGE)).getId());
+        }
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        baseUrl = "http://localhost:" + port + "/api/cars/";
+        batchUri = URI.create(baseUrl + "batch?ids=" + ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        client = HttpClient.newHttpClient();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int batchOf100() throws IOException, InterruptedException {
+        return get(batchUri).length();
+    }
+
+    @Benchmark
+    public int sequential100() throws IOException, InterruptedException {
+        int length = 0;
+        for (Long id : ids) {
+            length += get(URI.create(baseUrl + id)).length();
+        }
+        return length;
+    }
+
+    private String get(URI uri) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(uri + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,88 @@
+package de.ait.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.ait.model.Car;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson (de)serialization of {@link Car}: a single car, as returned by
+ * {@code GET /api/cars/{id}}, and a page of 100 cars. The mapper is configured the way
+ * Spring Boot configures the one used by the controllers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CarJsonBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final TypeReference<List<Car>> CAR_LIST = new TypeReference<>() {
+    };
+
+    private ObjectMapper objectMapper;
+    private Car car;
+    private List<Car> page;
+    private String carJson;
+    private String pageJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Car next = new Car("Brand" + i % 20, "Model " + i, 2015 + i % 10, 10000 + i, 20000 + i,
+                    "AVAILABLE", "Black", 150, "PETROL", "AUTOMATIC");
+            next.setId((long) i + 1);
+            next.setVersion(0L);
+            next.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+            next.setUpdatedAt(LocalDateTime.of(2025, 1, 2, 12, 0));
+            page.add(next);
+        }
+        car = page.get(0);
+        carJson = objectMapper.writeValueAsString(car);
+        pageJson = objectMapper.writeValueAsString(page);
+    }
+
+    @Benchmark
+    public String serializeCar() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(car);
+    }
+
+    @Benchmark
+    public Car deserializeCar() throws JsonProcessingException {
+        return objectMapper.readValue(carJson, Car.class);
+    }
+
+    @Benchmark
+    public String serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(page);
+    }
+
+    @Benchmark
+    public List<Car> deserializePage() throws JsonProcessingException {
+        return objectMapper.readValue(pageJson, CAR_LIST);
+    }
+}
@@ -0,0 +1,387 @@
+package de.ait.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * HTTP load scenario for {@code /api/cars} against a running application, usually one
+ * started with the {@code loadtest} profile. A fixed number of workers send requests
+ * back to back (closed loop) with a weighted mix of lookups, listings, searches and
+ * creates, and the run ends with throughput and latency percentiles per endpoint.
+ * <p>
+ * Arguments are {@code key=value} pairs, all optional:
+ * {@code url} (http://localhost:8080), {@code duration} and {@code warmup} in seconds
+ * (60 and 10), {@code concurrency} (32), {@code sample-ids} (20000, ids read from the
+ * listing before the run), {@code write-share} (0.02, share of POST requests),
+ * {@code mix} ({@code full}, or {@code read} for only the reads the reactive module also
+ * serves) and {@code report} (path of a JSON copy of the results). While it runs, the application's
+ * actuator is polled for peak live threads and memory.
+ */
+public final class CarLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String[] FUEL_TYPES = {"PETROL", "DIESEL", "HYBRID", "ELECTRIC"};
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private final List<Long> ids = new ArrayList<>();
+    private final List<String> brands = new ArrayList<>();
+    private final List<String> models = new ArrayList<>();
+
+    private CarLoadTest(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = Arrays.stream(args)
+                .map(arg -> arg.split("=", 2))
+                .collect(Collectors.toMap(pair -> pair[0], pair -> pair.length > 1 ? pair[1] : ""));
+
+        CarLoadTest loadTest = new CarLoadTest(options.getOrDefault("url", "http://localhost:8080"));
+        loadTest.sampleInventory(Integer.parseInt(options.getOrDefault("sample-ids", "20000")));
+
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        double writeShare = Double.parseDouble(options.getOrDefault("write-share", "0.02"));
+        boolean sharedReadsOnly = "read".equals(options.getOrDefault("mix", "full"));
+
+        ServerSampler sampler = loadTest.new ServerSampler();
+        Thread samplerThread = Thread.ofPlatform().daemon().name("server-sampler").start(sampler);
+        Map<String, Recorder> results = loadTest.run(loadTest.scenarios(writeShare, sharedReadsOnly), concurrency, warmup, duration);
+        samplerThread.interrupt();
+        samplerThread.join();
+
+        print(results, duration);
+        sampler.print();
+        if (options.containsKey("report")) {
+            writeReport(results, duration, concurrency, sampler, new File(options.get("report")));
+        }
+    }
+
+    /** Reads ids, brands and models from the cursor listing to build realistic requests. */
+    private void sampleInventory(int sampleSize) throws IOException, InterruptedException {
+        String cursor = null;
+        while (ids.size() < sampleSize) {
+            String uri = baseUrl + "/api/cars?size=500" + (cursor == null ? "" : "&cursor=" + cursor);
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(uri)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("GET " + uri + " returned " + response.statusCode());
+            }
+            for (JsonNode car : MAPPER.readTree(response.body())) {
+                ids.add(car.path("id").asLong());
+                brands.add(car.path("brand").asText());
+                models.add(car.path("model").asText());
+            }
+            cursor = response.headers().firstValue("X-Next-Cursor").orElse(null);
+            if (cursor == null) {
+                break;
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No cars at " + baseUrl + "; start the app with the loadtest profile");
+        }
+        System.out.printf("Sampled %d cars from %s%n", ids.size(), baseUrl);
+    }
+
+    private List<Scenario> scenarios(double writeShare, boolean sharedReadsOnly) {
+        if (sharedReadsOnly) {
+            // Только чтения, которые есть и в MVC, и в модуле reactive — для сравнения двух стеков
+            return List.of(
+                    new Scenario("GET /api/cars/{id}", 50, random -> get("/api/cars/" + any(random, ids))),
+                    new Scenario("GET /api/cars", 15, random -> get("/api/cars?size=50")),
+                    new Scenario("GET /api/cars/batch", 10, random -> get("/api/cars/batch?ids=" + random.ints(20, 0, ids.size())
+                            .mapToObj(i -> String.valueOf(ids.get(i))).collect(Collectors.joining(",")))),
+                    new Scenario("GET /api/cars/by-price", 15, random -> {
+                        int min = random.nextInt(1000, 60000);
+                        return get("/api/cars/by-price?min=" + min + "&max=" + (min + 100));
+                    }),
+                    new Scenario("GET /api/cars/by-power", 10, random -> {
+                        int minHp = random.nextInt(60, 500);
+                        return get("/api/cars/by-power?minHp=" + minHp + "&maxHp=" + minHp);
+                    }));
+        }
+
+        // Веса — доли запросов в смеси; POST добавляется отдельно через write-share
+        int readWeight = 100;
+        List<Scenario> scenarios = new ArrayList<>(List.of(
+                new Scenario("GET /api/cars/{id}", 35, random -> get("/api/cars/" + any(random, ids))),
+                new Scenario("GET /api/cars", 10, random -> get("/api/cars?size=50")),
+                new Scenario("GET /api/cars/batch", 5, random -> get("/api/cars/batch?ids=" + random.ints(20, 0, ids.size())
+                        .mapToObj(i -> String.valueOf(ids.get(i))).collect(Collectors.joining(",")))),
+                new Scenario("GET /api/cars/query", 20, random -> {
+                    int minPrice = random.nextInt(1000, 60000);
+                    return get("/api/cars/query?brand=" + encode(any(random, brands)) + "&minPrice=" + minPrice
+                            + "&maxPrice=" + (minPrice + 10000) + "&size=20");
+                }),
+                new Scenario("GET /api/cars/by-price", 5, random -> {
+                    int min = random.nextInt(1000, 60000);
+                    return get("/api/cars/by-price?min=" + min + "&max=" + (min + 100));
+                }),
+                new Scenario("GET /api/cars/by-fuel", 1, random -> get("/api/cars/by-fuel?fuelType=" + FUEL_TYPES[random.nextInt(FUEL_TYPES.length)])),
+                new Scenario("GET /api/cars/fulltext", 12, random -> get("/api/cars/fulltext?q=" + encode(any(random, models)))),
+                new Scenario("GET /api/cars/suggest", 7, random -> {
+                    String brand = any(random, brands);
+                    return get("/api/cars/suggest?prefix=" + encode(brand.substring(0, Math.min(3, brand.length()))));
+                }),
+                new Scenario("GET /api/cars/stats", 5, random -> get("/api/cars/stats"))
+        ));
+        if (writeShare > 0) {
+            int writeWeight = (int) Math.round(readWeight * writeShare / (1 - writeShare));
+            scenarios.add(new Scenario("POST /api/cars", Math.max(1, writeWeight), this::newCar));
+        }
+        return scenarios;
+    }
+
+    private Map<String, Recorder> run(List<Scenario> scenarios, int concurrency, Duration warmup, Duration duration)
+            throws InterruptedException {
+        int totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+
+        List<Map<String, Recorder>> perWorker = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            Map<String, Recorder> recorders = new HashMap<>();
+            scenarios.forEach(scenario -> recorders.put(scenario.name(), new Recorder()));
+            perWorker.add(recorders);
+
+            workers.add(Thread.ofPlatform().name("load-" + w).start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < measureUntil) {
+                    Scenario scenario = pick(scenarios, random.nextInt(totalWeight));
+                    HttpRequest request = scenario.request().apply(random);
+                    long started = System.nanoTime();
+                    boolean ok;
+                    try {
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        ok = status < 400;
+                    } catch (IOException exception) {
+                        ok = false;
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    // Прогрев не попадает в результаты
+                    if (started >= measureFrom) {
+                        recorders.get(scenario.name()).record(System.nanoTime() - started, ok);
+                    }
+                }
+            }));
+        }
+        System.out.printf("Running %d workers: %ds warm-up, %ds measured%n",
+                concurrency, warmup.toSeconds(), duration.toSeconds());
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Map<String, Recorder> merged = new LinkedHashMap<>();
+        for (Scenario scenario : scenarios) {
+            Recorder total = new Recorder();
+            perWorker.forEach(recorders -> total.add(recorders.get(scenario.name())));
+            total.sort();
+            merged.put(scenario.name(), total);
+        }
+        Recorder all = new Recorder();
+        merged.values().forEach(all::add);
+        all.sort();
+        merged.put("TOTAL", all);
+        return merged;
+    }
+
+    private static void print(Map<String, Recorder> results, Duration duration) {
+        System.out.printf("%n%-26s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        results.forEach((name, recorder) -> System.out.printf("%-26s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    name, recorder.count(), recorder.errors(), recorder.count() / (double) duration.toSeconds(),
+                    recorder.percentileMillis(50), recorder.percentileMillis(90), recorder.percentileMillis(99),
+                    recorder.percentileMillis(99.9), recorder.percentileMillis(100)));
+    }
+
+    private static void writeReport(Map<String, Recorder> results, Duration duration, int concurrency,
+                                    ServerSampler sampler, File file) throws IOException {
+        ObjectNode report = MAPPER.createObjectNode();
+        report.put("durationSeconds", duration.toSeconds());
+        report.put("concurrency", concurrency);
+        if (sampler.available) {
+            ObjectNode server = report.putObject("serverPeak");
+            server.put("liveThreads", sampler.peakThreads);
+            server.put("heapUsedMb", sampler.peakHeapMb);
+            server.put("nonHeapUsedMb", sampler.peakNonHeapMb);
+        }
+        ArrayNode endpoints = report.putArray("endpoints");
+        results.forEach((name, recorder) -> {
+            ObjectNode endpoint = endpoints.addObject();
+            endpoint.put("endpoint", name);
+            endpoint.put("requests", recorder.count());
+            endpoint.put("errors", recorder.errors());
+            endpoint.put("throughput", recorder.count() / (double) duration.toSeconds());
+            ObjectNode percentiles = endpoint.putObject("latencyMillis");
+            for (double percentile : PERCENTILES) {
+                percentiles.put("p" + (percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                        recorder.percentileMillis(percentile));
+            }
+            percentiles.put("max", recorder.percentileMillis(100));
+        });
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, report);
+        System.out.printf("%nReport written to %s%n", file);
+    }
+
+    private HttpRequest newCar(ThreadLocalRandom random) {
+        String body = """
+                {"brand":"%s","model":"%s","productionYear":%d,"mileage":%d,"price":%d,"status":"AVAILABLE",
+                 "color":"Black","horsepower":%d,"fuelType":"%s","transmission":"AUTOMATIC"}"""
+                .formatted(any(random, brands), any(random, models), random.nextInt(2005, 2026),
+                        random.nextInt(0, 200_000), random.nextInt(2000, 80_000), random.nextInt(70, 400),
+                        FUEL_TYPES[random.nextInt(FUEL_TYPES.length)]);
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/cars"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).build();
+    }
+
+    private static <T> T any(ThreadLocalRandom random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static Scenario pick(List<Scenario> scenarios, int point) {
+        for (Scenario scenario : scenarios) {
+            point -= scenario.weight();
+            if (point < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.getLast();
+    }
+
+    /**
+     * Polls the application's actuator once a second for live threads and memory, so
+     * runs with and without virtual threads can be compared on more than latency.
+     */
+    private final class ServerSampler implements Runnable {
+
+        private boolean available = true;
+        private long peakThreads;
+        private long peakHeapMb;
+        private long peakNonHeapMb;
+
+        @Override
+        public void run() {
+            while (available && !Thread.currentThread().isInterrupted()) {
+                try {
+                    peakThreads = Math.max(peakThreads, metric("jvm.threads.live", null));
+                    peakHeapMb = Math.max(peakHeapMb, metric("jvm.memory.used", "area:heap") / (1024 * 1024));
+                    peakNonHeapMb = Math.max(peakNonHeapMb, metric("jvm.memory.used", "area:nonheap") / (1024 * 1024));
+                    Thread.sleep(1000);
+                } catch (InterruptedException exception) {
+                    return;
+                } catch (IOException | IllegalStateException exception) {
+                    // Actuator недоступен — просто не печатаем серверные показатели
+                    available = false;
+                }
+            }
+        }
+
+        private long metric(String name, String tag) throws IOException, InterruptedException {
+            String uri = baseUrl + "/actuator/metrics/" + name + (tag == null ? "" : "?tag=" + tag);
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(uri)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException(uri + " returned " + response.statusCode());
+            }
+            return MAPPER.readTree(response.body()).path("measurements").path(0).path("value").asLong();
+        }
+
+        void print() {
+            if (available) {
+                System.out.printf("%nServer peak: %d live threads, %d MB heap used, %d MB non-heap used%n",
+                        peakThreads, peakHeapMb, peakNonHeapMb);
+            }
+        }
+    }
+
+    private record Scenario(String name, int weight, Function<ThreadLocalRandom, HttpRequest> request) {
+    }
+
+    /** Latencies of one worker (or of all workers after merging), in nanoseconds. */
+    private static final class Recorder {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void add(Recorder other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, count + other.count);
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+
+        void sort() {
+            Arrays.sort(latencies, 0, count);
+        }
+
+        int count() {
+            return count;
+        }
+
+        long errors() {
+            return errors;
+        }
+
+        double percentileMillis(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * count) - 1;
+            return latencies[Math.max(0, Math.min(count - 1, index))] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.ait.benchmark;
+
+import de.ait.enums.CarStatus;
+import de.ait.enums.FuelType;
+import de.ait.model.Car;
+import de.ait.repository.CarRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One benchmark per {@link CarRepository} finder against a large in-memory H2 table
+ * ({@code cars} rows, see {@link BenchmarkApplication#insertCars}). The selectivity of
+ * each call is noted on the method: the status and fuel type finders return a fifth and a
+ * quarter of the table and are dominated by entity hydration, not by the query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CarRepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"50000"})
+    private int cars;
+
+    private ConfigurableApplicationContext context;
+    private CarRepository carRepository;
+    private List<Long> batchIds;
+    private long middleId;
+    private LocalDateTime changesSince;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("--spring.main.web-application-type=none");
+        carRepository = context.getBean(CarRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkApplication.insertCars(jdbcTemplate, "Bench", cars);
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM cars WHERE brand LIKE 'Bench%' ORDER BY id", Long.class);
+        middleId = ids.get(ids.size() / 2);
+        batchIds = ids.subList(ids.size() / 2, ids.size() / 2 + PAGE_SIZE);
+        changesSince = jdbcTemplate.queryForObject("SELECT MIN(updated_at) FROM cars WHERE brand LIKE 'Bench%'",
+                LocalDateTime.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /** 1/40 of the table. */
+    @Benchmark
+    public List<Car> findByBrand() {
+        return carRepository.findByBrand("Bench7");
+    }
+
+    /** 1/5 of the table. */
+    @Benchmark
+    public List<Car> findCarByStatus() {
+        return carRepository.findCarByStatus(CarStatus.SOLD);
+    }
+
+    @Benchmark
+    public boolean existsCarById() {
+        return carRepository.existsCarById(middleId);
+    }
+
+    /** About 1% of the table. */
+    @Benchmark
+    public List<Car> findByPriceBetween() {
+        return carRepository.findByPriceBetween(50_000, 51_000);
+    }
+
+    /** 1/25 of the table, case-insensitive match. */
+    @Benchmark
+    public List<Car> findByColorIgnoreCase() {
+        return carRepository.findByColorIgnoreCase("color7");
+    }
+
+    /** 1/4 of the table. */
+    @Benchmark
+    public List<Car> findByFuelType() {
+        return carRepository.findByFuelType(FuelType.ELECTRIC);
+    }
+
+    /** 1/50 of the table. */
+    @Benchmark
+    public List<Car> findByHorsepowerBetween() {
+        return carRepository.findByHorsepowerBetween(200, 209);
+    }
+
+    /** Served from the {@code cars} cache after the first call. */
+    @Benchmark
+    public Optional<Car> findById() {
+        return carRepository.findById(middleId);
+    }
+
+    @Benchmark
+    public List<Car> findByIdGreaterThanOrderByIdAsc() {
+        return carRepository.findByIdGreaterThanOrderByIdAsc(middleId, Limit.of(PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<Car> findAllById() {
+        return carRepository.findAllById(batchIds);
+    }
+
+    @Benchmark
+    public List<Car> findChangedSince() {
+        return carRepository.findChangedSince(changesSince, middleId, LocalDateTime.now(), Limit.of(PAGE_SIZE));
+    }
+}
@@ -0,0 +1,85 @@
+package de.ait.benchmark;
+
+import de.ait.model.Car;
+import de.ait.validation.CarValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CarValidator} on a valid car and on a car that fails every string rule: the
+ * bitmask path ({@code validate}), the message path ({@code validateWithErrors}) and a
+ * batch of {@value #BATCH_SIZE} cars with one invalid car in ten. Run with {@code -prof gc}
+ * to see {@code gc.alloc.rate.norm}, the bytes allocated per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CarValidatorBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    private CarValidator validator;
+    private Car validCar;
+    private Car invalidCar;
+    private List<Car> batch;
+    private int[] batchErrors;
+
+    @Setup
+    public void setUp() {
+        validator = new CarValidator();
+        validCar = new Car("BMW", "X5", 2020, 15000, 55000, "AVAILABLE", "Black", 340, "PETROL", "AUTOMATIC");
+        invalidCar = new Car();
+        invalidCar.setBrand(" ");
+        invalidCar.setModel("");
+        invalidCar.setColor("  ");
+        invalidCar.setMileage(-1);
+
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(i % 10 == 0 ? invalidCar : validCar);
+        }
+        batchErrors = new int[BATCH_SIZE];
+    }
+
+    @Benchmark
+    public int validCarMask() {
+        return validator.validate(validCar);
+    }
+
+    @Benchmark
+    public int invalidCarMask() {
+        return validator.validate(invalidCar);
+    }
+
+    @Benchmark
+    public List<String> validCar() {
+        return validator.validateWithErrors(validCar);
+    }
+
+    @Benchmark
+    public List<String> invalidCar() {
+        return validator.validateWithErrors(invalidCar);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int batch() {
+        return validator.validateAll(batch, batchErrors);
+    }
+}
@@ -0,0 +1,170 @@
+package de.ait.benchmark;
+
+import de.ait.JavaProgLessonsPro59Application;
+import de.ait.model.Car;
+import de.ait.repository.CarRepository;
+import de.ait.service.CarWriteService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution (p50/p99 in the SampleTime output) of the car write paths:
+ * {@code legacy*} repeats what CarController did before (existsById, then a load
+ * and an UPDATE), {@code singleStatement*} goes through CarWriteService (one
+ * UPDATE that also returns the previous row). The number of SQL statements per
+ * request, taken from Hibernate statistics, is printed at the end of every run.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CarWriteBenchmark {
+
+    private static final int UPDATE_CARS = 1000;
+    // Каждый DELETE расходует одну машину, запас на итерацию с большим запасом
+    private static final int DELETE_POOL = 200_000;
+
+    private ConfigurableApplicationContext context;
+    private CarRepository carRepository;
+    private CarWriteService carWriteService;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private Statistics statistics;
+
+    private List<Long> updateIds;
+    private List<Long> deleteIds;
+    private int nextUpdate;
+    private int nextDelete;
+    private long statementsBefore;
+    private long requests;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(JavaProgLessonsPro59Application.class,
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--app.mail.outbox.dispatcher.enabled=false",
+                "--logging.level.root=WARN");
+
+        carRepository = context.getBean(CarRepository.class);
+        carWriteService = context.getBean(CarWriteService.class);
+        EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        insertCars("Bench-update", UPDATE_CARS);
+        updateIds = jdbcTemplate.queryForList("SELECT id FROM cars WHERE brand = 'Bench-update'", Long.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void refillDeletePool() {
+        jdbcTemplate.update("DELETE FROM cars WHERE brand = 'Bench-delete'");
+        insertCars("Bench-delete", DELETE_POOL);
+        deleteIds = jdbcTemplate.queryForList("SELECT id FROM cars WHERE brand = 'Bench-delete'", Long.class);
+        nextDelete = 0;
+        statementsBefore = statistics.getPrepareStatementCount();
+        requests = 0;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportStatements(BenchmarkParams params) {
+        // Заполнение пула в @Setup не считается: счётчик снимается после него
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        System.out.printf("%n%s: %.2f SQL statements per request%n",
+                params.getBenchmark(), requests == 0 ? 0.0 : (double) statements / requests);
+    }
+
+    @Benchmark
+    public boolean legacyUpdate() {
+        Long id = nextUpdateId();
+        if (!carRepository.existsById(id)) {
+            return false;
+        }
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Car car = entityManager.find(Car.class, id);
+            car.setPrice(car.getPrice() + 1);
+            return true;
+        }));
+    }
+
+    @Benchmark
+    public boolean singleStatementUpdate() {
+        Long id = nextUpdateId();
+        Car changes = new Car("Bench-update", "Model", 2020, 10000, 20000 + (int) requests % 1000,
+                "AVAILABLE", "Black", 150, "PETROL", "AUTOMATIC");
+        return carWriteService.update(id, changes, null).isPresent();
+    }
+
+    @Benchmark
+    public boolean legacyDelete() {
+        Long id = nextDeleteId();
+        if (!carRepository.existsById(id)) {
+            return false;
+        }
+        carRepository.deleteById(id);
+        return true;
+    }
+
+    @Benchmark
+    public boolean singleStatementDelete() {
+        return carWriteService.delete(nextDeleteId(), null);
+    }
+
+    private Long nextUpdateId() {
+        requests++;
+        return updateIds.get(nextUpdate++ % updateIds.size());
+    }
+
+    private Long nextDeleteId() {
+        if (nextDelete == deleteIds.size()) {
+            throw new IllegalStateException("Delete pool exhausted, raise DELETE_POOL");
+        }
+        requests++;
+        return deleteIds.get(nextDelete++);
+    }
+
+    private void insertCars(String brand, int count) {
+        jdbcTemplate.update("""
+                INSERT INTO cars (brand, model, production_year, mileage, price,
+                                  status, color, horsepower, fuel_type, transmission)
+                SELECT ?, 'Model ' || X, 2015 + MOD(X, 10), 10000 + X, 20000 + MOD(X, 1000),
+                       'AVAILABLE', 'Black', 150, 'PETROL', 'AUTOMATIC'
+                FROM SYSTEM_RANGE(1, ?)
+                """, brand, count);
+    }
+}
@@ -0,0 +1,88 @@
+package de.ait.benchmark;
+
+import de.ait.dto.CarOfferEmailRequest;
+import de.ait.dto.TestDriveConfirmationEmailRequest;
+import de.ait.model.Car;
+import de.ait.repository.CarRepository;
+import de.ait.service.CarOfferEmailService;
+import de.ait.service.TestDriveEmailService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole send path of {@link CarOfferEmailService} and {@link TestDriveEmailService}:
+ * car lookup, template rendering and building the MIME message. The mail sender encodes
+ * every message and then discards it, so SMTP itself is not part of the score.
+ * {@link EmailTemplateRenderBenchmark} measures the rendering step on its own.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private CarOfferEmailService carOfferEmailService;
+    private TestDriveEmailService testDriveEmailService;
+    private CarOfferEmailRequest offerRequest;
+    private TestDriveConfirmationEmailRequest testDriveRequest;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("--spring.main.web-application-type=none");
+        carOfferEmailService = context.getBean(CarOfferEmailService.class);
+        testDriveEmailService = context.getBean(TestDriveEmailService.class);
+
+        Car car = context.getBean(CarRepository.class).save(
+                new Car("BMW", "X5", 2020, 30000, 35000, "AVAILABLE", "Black", 250, "PETROL", "AUTOMATIC"));
+
+        offerRequest = new CarOfferEmailRequest();
+        offerRequest.setEmail("client@bench.local");
+        offerRequest.setClientName("Anna");
+        offerRequest.setCarId(car.getId());
+        offerRequest.setOfferPrice(33000);
+
+        testDriveRequest = TestDriveConfirmationEmailRequest.builder()
+                .clientEmail("client@bench.local")
+                .clientName("Anna")
+                .carId(car.getId())
+                .testDriveDateTime("2025-06-01 10:00")
+                .dealerAddress("Berlin, Hauptstraße 1")
+                .dealerPhone("+49 30 123456")
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void carOffer() {
+        carOfferEmailService.sendCarOfferEmail(offerRequest);
+    }
+
+    @Benchmark
+    public void testDriveConfirmation() {
+        testDriveEmailService.sendConfirmationEmail(testDriveRequest);
+    }
+
+    @Benchmark
+    public void testDriveReminder() {
+        testDriveEmailService.sendReminderEmail(testDriveRequest);
+    }
+}
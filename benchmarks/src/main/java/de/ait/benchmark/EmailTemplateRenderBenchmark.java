@@ -0,0 +1,97 @@
+package de.ait.benchmark;
+
+import de.ait.model.Car;
+import de.ait.service.EmailTemplateRenderer;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders/sec for every email template. Run it with {@code -prof gc} to get
+ * gc.alloc.rate.norm, the number of bytes allocated per render.
+ * {@code cacheable=false} shows what rendering costs without the template cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailTemplateRenderBenchmark {
+
+    @Param({"true", "false"})
+    private boolean cacheable;
+
+    private EmailTemplateRenderer renderer;
+    private Car car;
+
+    @Setup
+    public void setUp() {
+        // Тот же резолвер, что настраивает Spring Boot: classpath:/templates/*.html
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(cacheable);
+
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+
+        renderer = new EmailTemplateRenderer(engine, ObservationRegistry.NOOP);
+        car = new Car("BMW", "X5", 2020, 30000, 35000, "AVAILABLE", "Black", 250, "PETROL", "AUTOMATIC");
+        car.setId(1L);
+    }
+
+    @Benchmark
+    public String carOffer() {
+        Context context = new Context();
+        context.setVariable("clientName", "Anna");
+        context.setVariable("carBrand", car.getBrand());
+        context.setVariable("carModel", car.getModel());
+        context.setVariable("productionYear", car.getProductionYear());
+        context.setVariable("mileage", car.getMileage());
+        context.setVariable("color", car.getColor());
+        context.setVariable("transmission", car.getTransmission());
+        context.setVariable("fuelType", car.getFuelType());
+        context.setVariable("offerPrice", 33000);
+        context.setVariable("confirmUrl", "http://localhost:8080/confirm-offer?carId=1");
+        return renderer.render(EmailTemplateRenderer.CAR_OFFER, context);
+    }
+
+    @Benchmark
+    public String testDriveConfirmation() {
+        return renderer.render(EmailTemplateRenderer.TEST_DRIVE_CONFIRMATION, testDriveContext());
+    }
+
+    @Benchmark
+    public String testDriveReminder() {
+        return renderer.render(EmailTemplateRenderer.TEST_DRIVE_REMINDER, testDriveContext());
+    }
+
+    private Context testDriveContext() {
+        Context context = new Context();
+        context.setVariable("clientName", "Anna");
+        context.setVariable("car", car);
+        context.setVariable("testDriveDateTime", "2025-06-01 10:00");
+        context.setVariable("dealerAddress", "Hauptstr. 1, Berlin");
+        context.setVariable("dealerPhone", "+49 30 000000");
+        return context;
+    }
+}
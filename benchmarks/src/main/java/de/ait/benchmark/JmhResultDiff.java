@@ -0,0 +1,99 @@
+package de.ait.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH result files written with {@code -rf json}, typically from two commits:
+ *
+ * <pre>
+ * JmhResultDiff baseline.json current.json [max-regression-percent]
+ * </pre>
+ *
+ * Prints one line per benchmark and parameter set with both scores and the change, where a
+ * positive change is always an improvement (higher throughput or lower time per operation).
+ * A change within the combined error of both runs is marked as noise. With the optional
+ * threshold the exit code is 1 when any benchmark regressed by more than that many percent.
+ */
+public final class JmhResultDiff {
+
+    private JmhResultDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: JmhResultDiff <baseline.json> <current.json> [max-regression-percent]");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+        Double maxRegression = args.length > 2 ? Double.valueOf(args[2]) : null;
+
+        boolean failed = false;
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode metric = entry.getValue().path("primaryMetric");
+            String unit = metric.path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s %s%n", entry.getKey(), "-", metric.path("score").asDouble(), "new", unit);
+                continue;
+            }
+            JsonNode beforeMetric = before.path("primaryMetric");
+            double oldScore = beforeMetric.path("score").asDouble();
+            double newScore = metric.path("score").asDouble();
+            double error = finite(beforeMetric.path("scoreError").asDouble()) + finite(metric.path("scoreError").asDouble());
+
+            // Для thrpt больше — лучше, для avgt/sample/ss — меньше
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().path("mode").asText());
+            double change = oldScore == 0 ? 0 : (newScore - oldScore) / oldScore * 100;
+            if (!higherIsBetter) {
+                change = 0 - change;
+            }
+            boolean noise = Math.abs(newScore - oldScore) <= error;
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), oldScore, newScore, change, unit,
+                    noise ? " (noise)" : "");
+
+            if (maxRegression != null && !noise && change < -maxRegression) {
+                failed = true;
+            }
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-70s %14s %14s %9s%n", key, "", "-", "removed");
+            }
+        }
+        if (failed) {
+            System.err.printf("Regression over %.1f%% found%n", maxRegression);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            results.put(key(result), result);
+        }
+        return results;
+    }
+
+    private static String key(JsonNode result) {
+        StringBuilder key = new StringBuilder(result.path("benchmark").asText().replace("de.ait.benchmark.", ""));
+        Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+        while (params.hasNext()) {
+            Map.Entry<String, JsonNode> param = params.next();
+            key.append(key.indexOf(":") < 0 ? ":" : ",").append(param.getKey()).append('=').append(param.getValue().asText());
+        }
+        return key.toString();
+    }
+
+    private static double finite(double value) {
+        return Double.isFinite(value) ? value : 0;
+    }
+}
@@ -0,0 +1,17 @@
+package de.ait.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// C — модель машины приложения: JPA-сущность в MVC, строка R2DBC в reactive
+@Getter
+@AllArgsConstructor
+public class CarBatchItem<C> {
+
+    private Long id;
+
+    private boolean found;
+
+    // null, если found = false
+    private C car;
+}
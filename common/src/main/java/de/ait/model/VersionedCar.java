@@ -0,0 +1,13 @@
+package de.ait.model;
+
+/**
+ * What {@link de.ait.util.CarEtags} needs from a car. Implemented by the JPA entity
+ * of the MVC application and by the R2DBC row of the reactive one, so both build
+ * the same ETags.
+ */
+public interface VersionedCar {
+
+    Long getId();
+
+    Long getVersion();
+}
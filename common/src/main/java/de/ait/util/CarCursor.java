@@ -0,0 +1,45 @@
+package de.ait.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for car listings. The token wraps the id of the last
+ * car a client has seen, so the next page starts right after it.
+ */
+public final class CarCursor {
+
+    private static final String PREFIX = "id:";
+
+    private CarCursor() {
+    }
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, exception);
+        }
+
+        if (!raw.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+
+        try {
+            long lastId = Long.parseLong(raw.substring(PREFIX.length()));
+            if (lastId < 0) {
+                throw new IllegalArgumentException("Malformed cursor: " + cursor);
+            }
+            return lastId;
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, exception);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package de.ait.util;
+
+import de.ait.model.VersionedCar;
+
+import java.util.List;
+
+/**
+ * Strong ETags built from {@link VersionedCar#getVersion()}, so a response can be
+ * validated without serializing it. Shared by the MVC and the reactive application.
+ */
+public final class CarEtags {
+
+    private CarEtags() {
+    }
+
+    public static String of(VersionedCar car) {
+        return "\"" + car.getId() + "-" + car.getVersion() + "\"";
+    }
+
+    // Для списка: хэш пар (id, version) — меняется при любом изменении, добавлении или удалении машины
+    public static String of(List<? extends VersionedCar> cars) {
+        long hash = 17;
+        for (VersionedCar car : cars) {
+            hash = 31 * hash + car.getId();
+            hash = 31 * hash + car.getVersion();
+        }
+        return "\"" + cars.size() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Returns the version a client expects from an If-Match header, or null when
+     * any version is fine (no header or "*"). An ETag of another car or a weak
+     * ETag yields -1, which never matches.
+     */
+    public static Long expectedVersion(String ifMatch, Long carId) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + carId + "-";
+        for (String etag : ifMatch.split(",")) {
+            etag = etag.trim();
+            if (etag.startsWith(prefix) && etag.endsWith("\"")) {
+                try {
+                    return Long.parseLong(etag.substring(prefix.length(), etag.length() - 1));
+                } catch (NumberFormatException exception) {
+                    return -1L;
+                }
+            }
+        }
+        return -1L;
+    }
+}
@@ -0,0 +1,17 @@
+package de.ait.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Non-blocking read API for cars: the GET endpoints of the MVC {@code CarController}
+ * on WebFlux and R2DBC, over the same {@code cars} table and Liquibase changelog.
+ * Writes stay in the MVC application.
+ */
+@SpringBootApplication
+public class ReactiveCarApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveCarApplication.class, args);
+    }
+}
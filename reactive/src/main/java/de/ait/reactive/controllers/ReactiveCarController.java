@@ -0,0 +1,189 @@
+package de.ait.reactive.controllers;
+
+import de.ait.dto.CarBatchItem;
+import de.ait.reactive.model.Car;
+import de.ait.reactive.repository.ReactiveCarRepository;
+import de.ait.util.CarCursor;
+import de.ait.util.CarEtags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The read endpoints of the MVC {@code CarController} with the same paths, parameters,
+ * status codes and JSON. Lists are streamed to the client as rows arrive from R2DBC:
+ * {@code /stream} sends a JSON array or, with {@code Accept: application/x-ndjson},
+ * one car per line, and in both cases the query only reads ahead as fast as the
+ * client consumes. {@code /search} and {@code /by-price} carry the same list ETags
+ * as the MVC application, so they are collected before the response starts.
+ */
+@RestController
+@RequestMapping("/api/cars")
+@Slf4j
+public class ReactiveCarController {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final Set<String> FUEL_TYPES = Set.of("PETROL", "DIESEL", "HYBRID", "ELECTRIC");
+
+    private final ReactiveCarRepository carRepository;
+
+    public ReactiveCarController(ReactiveCarRepository carRepository) {
+        this.carRepository = carRepository;
+    }
+
+    @Value("${app.cars.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${app.cars.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.cars.batch.max-ids:500}")
+    private int maxBatchIds;
+
+    @GetMapping
+    public Mono<ResponseEntity<List<Car>>> getAllCars(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+
+        int pageSize = size == null ? defaultPageSize : size;
+
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        long afterId;
+        try {
+            afterId = cursor == null ? 0 : CarCursor.decode(cursor);
+        } catch (IllegalArgumentException exception) {
+            log.warn("Rejected car listing cursor: {}", cursor);
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        // Берём на одну запись больше, чтобы понять, есть ли следующая страница
+        return carRepository.findPage(afterId, pageSize + 1)
+                .collectList()
+                .map(cars -> {
+                    if (cars.size() <= pageSize) {
+                        return ResponseEntity.ok(cars);
+                    }
+                    List<Car> page = cars.subList(0, pageSize);
+                    return ResponseEntity.ok()
+                            .header(NEXT_CURSOR_HEADER, CarCursor.encode(page.getLast().getId()))
+                            .body(page);
+                });
+    }
+
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Car> streamAllCars() {
+        return carRepository.findAllLive();
+    }
+
+    @GetMapping("/batch")
+    public Mono<ResponseEntity<Object>> getCarsByIds(@RequestParam List<Long> ids) {
+
+        if (ids.isEmpty() || ids.size() > maxBatchIds || ids.contains(null)) {
+            return Mono.just(ResponseEntity
+                    .badRequest()
+                    .body(Map.of("errors", List.of("Between 1 and " + maxBatchIds + " ids are required"))));
+        }
+
+        // Один IN на весь запрос, ответ — в порядке id из запроса, ненайденные с found = false
+        return carRepository.findLiveByIds(Set.copyOf(ids))
+                .collectMap(Car::getId, Function.identity())
+                .map(found -> ResponseEntity.ok(ids.stream()
+                        .map(id -> new CarBatchItem<>(id, found.containsKey(id), found.get(id)))
+                        .toList()));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Car>> getCarById(@PathVariable Long id) {
+        return carRepository.findLiveById(id)
+                .map(car -> ResponseEntity.ok().eTag(CarEtags.of(car)).body(car))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<Car>>> searchCars(@RequestParam String brand) {
+        return okWithEtag(carRepository.findByBrand(brand));
+    }
+
+    @GetMapping("/by-price")
+    public Mono<ResponseEntity<List<Car>>> searchByPriceBetween(
+            @RequestParam int min,
+            @RequestParam int max) {
+
+        if (min < 0 || max < 0 || min > max) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        return okWithEtag(carRepository.findByPriceBetween(min, max));
+    }
+
+    @GetMapping("/by-color")
+    public ResponseEntity<Flux<Car>> searchByColor(@RequestParam String color) {
+
+        if (color == null || color.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(carRepository.findByColorIgnoreCase(color));
+    }
+
+    @GetMapping("/by-fuel")
+    public Mono<ResponseEntity<Flux<Car>>> searchByFuelType(@RequestParam String fuelType) {
+
+        if (!FUEL_TYPES.contains(fuelType)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        return notFoundIfEmpty(carRepository.findByFuelType(fuelType));
+    }
+
+    @GetMapping("/by-power")
+    public Mono<ResponseEntity<Flux<Car>>> searchByHorsePower(
+            @RequestParam int minHp,
+            @RequestParam int maxHp) {
+
+        if (minHp < 0 || maxHp < 0 || minHp > maxHp) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        return notFoundIfEmpty(carRepository.findByHorsepowerBetween(minHp, maxHp));
+    }
+
+    /**
+     * The list ETag of the MVC controller. It needs the whole result, so these lists
+     * are collected rather than streamed; WebFlux answers a matching If-None-Match
+     * with 304 and no body.
+     */
+    private static Mono<ResponseEntity<List<Car>>> okWithEtag(Flux<Car> cars) {
+        return cars.collectList()
+                .map(list -> ResponseEntity.ok().eTag(CarEtags.of(list)).body(list));
+    }
+
+    /**
+     * 404 for an empty result, as in the MVC controller, without collecting the list:
+     * the status is chosen on the first row, and the body streams that row and the
+     * rest of the same query.
+     */
+    private static Mono<ResponseEntity<Flux<Car>>> notFoundIfEmpty(Flux<Car> cars) {
+        return cars.<ResponseEntity<Flux<Car>>>switchOnFirst((first, all) -> Mono.just(first.hasValue()
+                        ? ResponseEntity.ok(all)
+                        : ResponseEntity.notFound().build()), false)
+                .single();
+    }
+}
@@ -0,0 +1,55 @@
+package de.ait.reactive.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.ait.model.VersionedCar;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a row in {@code cars}. Serializes to the same JSON as the MVC
+ * {@code de.ait.model.Car}; status, fuel type and transmission are the enum names.
+ */
+@Table("cars")
+@Getter
+@Setter
+@NoArgsConstructor
+public class Car implements VersionedCar {
+
+    @Id
+    private Long id;
+
+    private String brand;
+
+    private String model;
+
+    private int productionYear;
+
+    private int mileage;
+
+    private int price;
+
+    private String status;
+
+    private String color;
+
+    private int horsepower;
+
+    private String fuelType;
+
+    private String transmission;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private Long version;
+
+    // Запросы репозитория и так отбирают только deleted = FALSE
+    @JsonIgnore
+    private boolean deleted;
+}
@@ -0,0 +1,47 @@
+package de.ait.reactive.repository;
+
+import de.ait.reactive.model.Car;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Read queries over {@code cars}. Every query skips soft-deleted rows, like the
+ * {@code @SQLRestriction} on the JPA entity. Rows are emitted as the driver reads them,
+ * so a slow subscriber slows the query down instead of buffering the whole result.
+ */
+public interface ReactiveCarRepository extends ReactiveCrudRepository<Car, Long> {
+
+    @Query("SELECT * FROM cars WHERE id = :id AND deleted = FALSE")
+    Mono<Car> findLiveById(@Param("id") long id);
+
+    @Query("SELECT * FROM cars WHERE id IN (:ids) AND deleted = FALSE")
+    Flux<Car> findLiveByIds(@Param("ids") Collection<Long> ids);
+
+    // Keyset-пагинация, как findByIdGreaterThanOrderByIdAsc в MVC
+    @Query("SELECT * FROM cars WHERE id > :afterId AND deleted = FALSE ORDER BY id LIMIT :limit")
+    Flux<Car> findPage(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Query("SELECT * FROM cars WHERE deleted = FALSE ORDER BY id")
+    Flux<Car> findAllLive();
+
+    @Query("SELECT * FROM cars WHERE brand = :brand AND deleted = FALSE")
+    Flux<Car> findByBrand(@Param("brand") String brand);
+
+    @Query("SELECT * FROM cars WHERE price BETWEEN :min AND :max AND deleted = FALSE")
+    Flux<Car> findByPriceBetween(@Param("min") int min, @Param("max") int max);
+
+    // color_upper — вычисляемая колонка с индексом (009-add-search-indexes)
+    @Query("SELECT * FROM cars WHERE color_upper = UPPER(:color) AND deleted = FALSE")
+    Flux<Car> findByColorIgnoreCase(@Param("color") String color);
+
+    @Query("SELECT * FROM cars WHERE fuel_type = :fuelType AND deleted = FALSE")
+    Flux<Car> findByFuelType(@Param("fuelType") String fuelType);
+
+    @Query("SELECT * FROM cars WHERE horsepower BETWEEN :minHp AND :maxHp AND deleted = FALSE")
+    Flux<Car> findByHorsepowerBetween(@Param("minHp") int minHp, @Param("maxHp") int maxHp);
+}
@@ -0,0 +1,173 @@
+package de.ait.reactive.controllers;
+
+import de.ait.reactive.model.Car;
+import de.ait.util.CarEtags;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+public class ReactiveCarControllerIT {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM cars").then().block();
+        insert("Toyota", "Camry", 18000, "Black", 200, "PETROL", false);
+        insert("Toyota", "Corolla", 15000, "White", 130, "HYBRID", false);
+        insert("BMW", "X5", 28000, "Black", 265, "DIESEL", false);
+        insert("BMW", "M3", 55000, "Blue", 473, "PETROL", true);
+        ids = databaseClient.sql("SELECT id FROM cars ORDER BY id")
+                .map(row -> row.get("id", Long.class))
+                .all().collectList().block();
+    }
+
+    @Test
+    @DisplayName("Car by id should be returned with an ETag, deleted cars should be 404")
+    void testGetCarById() {
+        webTestClient.get().uri("/api/cars/{id}", ids.get(0)).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"" + ids.get(0) + "-0\"")
+                .expectBody()
+                .jsonPath("$.brand").isEqualTo("Toyota")
+                .jsonPath("$.fuelType").isEqualTo("PETROL")
+                .jsonPath("$.deleted").doesNotExist();
+
+        webTestClient.get().uri("/api/cars/{id}", ids.get(3)).exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Listing should page with the same cursor header as the MVC API")
+    void testListingShouldPageWithCursor() {
+        String cursor = webTestClient.get().uri("/api/cars?size=2").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(2)
+                .returnResult().getResponseHeaders().getFirst("X-Next-Cursor");
+
+        assertThat(cursor).isNotNull();
+        webTestClient.get().uri("/api/cars?size=2&cursor=" + cursor).exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("X-Next-Cursor")
+                .expectBody().jsonPath("$[0].model").isEqualTo("X5");
+
+        webTestClient.get().uri("/api/cars?size=0").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/cars?cursor=broken").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Batch should keep request order and mark missing cars")
+    void testBatchShouldKeepRequestOrder() {
+        webTestClient.get().uri("/api/cars/batch?ids={a},{b},{c}", ids.get(2), 999999, ids.get(0)).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].car.model").isEqualTo("X5")
+                .jsonPath("$[1].found").isEqualTo(false)
+                .jsonPath("$[2].car.model").isEqualTo("Camry");
+    }
+
+    @Test
+    @DisplayName("Searches should match the MVC status codes")
+    void testSearchesShouldMatchMvcStatusCodes() {
+        webTestClient.get().uri("/api/cars/search?brand=BMW").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(1);
+        webTestClient.get().uri("/api/cars/by-price?min=15000&max=20000").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+        webTestClient.get().uri("/api/cars/by-price?min=20000&max=1").exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/cars/by-color?color=black").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+        webTestClient.get().uri("/api/cars/by-fuel?fuelType=PETROL").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(1);
+        webTestClient.get().uri("/api/cars/by-fuel?fuelType=ELECTRIC").exchange()
+                .expectStatus().isNotFound();
+        webTestClient.get().uri("/api/cars/by-fuel?fuelType=STEAM").exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/cars/by-power?minHp=100&maxHp=250").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+        webTestClient.get().uri("/api/cars/by-power?minHp=1000&maxHp=2000").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Search and price range should carry the MVC list ETag and answer If-None-Match with 304")
+    void testSearchesShouldCarryListEtags() {
+        Car x5 = new Car();
+        x5.setId(ids.get(2));
+        x5.setVersion(0L);
+        String etag = CarEtags.of(List.of(x5));
+
+        webTestClient.get().uri("/api/cars/search?brand=BMW").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", etag);
+        webTestClient.get().uri("/api/cars/search?brand=BMW").header("If-None-Match", etag).exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        String priceEtag = webTestClient.get().uri("/api/cars/by-price?min=15000&max=20000").exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        assertThat(priceEtag).isNotNull();
+        webTestClient.get().uri("/api/cars/by-price?min=15000&max=20000").header("If-None-Match", priceEtag).exchange()
+                .expectStatus().isNotModified();
+
+        // Новая версия машины меняет ETag списка
+        databaseClient.sql("UPDATE cars SET version = version + 1 WHERE id = :id").bind("id", ids.get(0)).then().block();
+        webTestClient.get().uri("/api/cars/by-price?min=15000&max=20000").header("If-None-Match", priceEtag).exchange()
+                .expectStatus().isOk()
+                .expectHeader().value("ETag", value -> assertThat(value).isNotEqualTo(priceEtag));
+    }
+
+    @Test
+    @DisplayName("Stream should emit one car per line as NDJSON and honour client demand")
+    void testStreamShouldEmitNdjson() {
+        StepVerifier.create(webTestClient.get().uri("/api/cars/stream")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .exchange()
+                        .expectStatus().isOk()
+                        .returnResult(String.class).getResponseBody(), 1)
+                .expectNextMatches(line -> line.contains("\"Camry\""))
+                .thenRequest(2)
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    private void insert(String brand, String model, int price, String color, int horsepower, String fuelType, boolean deleted) {
+        databaseClient.sql("""
+                        INSERT INTO cars (brand, model, production_year, mileage, price, status, color,
+                                          horsepower, fuel_type, transmission, deleted)
+                        VALUES (:brand, :model, 2020, 10000, :price, 'AVAILABLE', :color, :horsepower, :fuelType, 'AUTOMATIC', :deleted)""")
+                .bind("brand", brand)
+                .bind("model", model)
+                .bind("price", price)
+                .bind("color", color)
+                .bind("horsepower", horsepower)
+                .bind("fuelType", fuelType)
+                .bind("deleted", deleted)
+                .then().block();
+    }
+}
@@ -0,0 +1,40 @@
+package de.ait.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Read-through cache for car lookups. The cache provider, size and TTL come from
+ * the spring.cache.* properties; spring.cache.type=none turns caching off.
+ * The cache sits outside {@link CarRepositoryObservationAspect}, so a cache hit
+ * is not counted as a repository query.
+ * <p>
+ * The auto-configured cache manager is wrapped in a
+ * {@link TransactionAwareCacheManagerProxy}: inside a transaction, puts and evictions
+ * are applied after commit. Otherwise a concurrent {@code findById} could cache the
+ * pre-commit row again between the eviction and the commit.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String CARS_CACHE = "cars";
+
+    @Bean
+    static BeanPostProcessor transactionAwareCacheManager() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager cacheManager && !(bean instanceof TransactionAwareCacheManagerProxy)) {
+                    return new TransactionAwareCacheManagerProxy(cacheManager);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package de.ait.config;
+
+import de.ait.model.Car;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Observes every {@code CarRepository} call: a {@code cars.repository} timer (and a
+ * span when tracing samples the request) tagged with the method name, and a
+ * {@code cars.repository.rows} summary of how many cars each finder returned.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class CarRepositoryObservationAspect {
+
+    private final ObservationRegistry observationRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    public CarRepositoryObservationAspect(ObservationRegistry observationRegistry, MeterRegistry meterRegistry) {
+        this.observationRegistry = observationRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("this(de.ait.repository.CarRepository) && !execution(* java.lang.Object.*(..))")
+    public Object observe(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        Observation observation = Observation.createNotStarted("cars.repository", observationRegistry)
+                .contextualName("CarRepository." + method)
+                .lowCardinalityKeyValue("method", method)
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            Object result = joinPoint.proceed();
+            int rows = rows(result);
+            if (rows >= 0) {
+                rowSummaries.computeIfAbsent(method, this::rowSummary).record(rows);
+            }
+            return result;
+        } catch (Throwable throwable) {
+            observation.error(throwable);
+            throw throwable;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private DistributionSummary rowSummary(String method) {
+        return DistributionSummary.builder("cars.repository.rows")
+                .description("Cars returned by one CarRepository call")
+                .baseUnit("rows")
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+
+    // -1 — метод возвращает не машины (count, exists, число изменённых строк, Stream)
+    private static int rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Car) {
+            return 1;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,118 @@
+package de.ait.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-client token bucket for the search endpoints. Each client (remote address) gets
+ * {@code capacity} tokens that refill at {@code refillPerSecond}; a request without a
+ * token gets 429 with Retry-After. Buckets of clients idle for {@code idleTimeout} are
+ * dropped. Registered by {@link RateLimitConfig}.
+ */
+@Slf4j
+public class CarSearchRateLimiter implements HandlerInterceptor {
+
+    private final int capacity;
+    private final double tokensPerNano;
+    private final Cache<String, TokenBucket> buckets;
+    private final ObjectMapper objectMapper;
+    private final Counter allowed;
+    private final Counter rejected;
+
+    public CarSearchRateLimiter(int capacity, double refillPerSecond, Duration idleTimeout, long maxClients,
+                                ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit needs capacity >= 1 and refill-per-second > 0");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumSize(maxClients)
+                .build();
+        this.objectMapper = objectMapper;
+        this.allowed = counter(meterRegistry, "allowed");
+        this.rejected = counter(meterRegistry, "rejected");
+        Gauge.builder("cars.rate-limit.clients", buckets, Cache::estimatedSize)
+                .description("Clients with a token bucket")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // За прокси remoteAddr — адрес прокси; тогда нужен server.forward-headers-strategy
+        String client = request.getRemoteAddr();
+        TokenBucket bucket = buckets.get(client, key -> new TokenBucket(capacity, System.nanoTime()));
+
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if (waitNanos == 0) {
+            allowed.increment();
+            return true;
+        }
+
+        rejected.increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        log.debug("Rate limit exceeded for client {} on {}", client, request.getRequestURI());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                Map.of("errors", List.of("Too many requests, retry in " + retryAfterSeconds + " s")));
+        return false;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("cars.rate-limit.requests")
+                .description("Search requests checked by the rate limiter, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private final class TokenBucket {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private double tokens;
+        private long refilledAt;
+
+        private TokenBucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        // 0 — токен взят, иначе сколько наносекунд ждать следующего.
+        // ReentrantLock, а не synchronized: ожидающий виртуальный поток не занимает поток-носитель
+        private long tryAcquire(long now) {
+            lock.lock();
+            try {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+                refilledAt = now;
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return 0;
+                }
+                return (long) Math.ceil((1 - tokens) / tokensPerNano);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package de.ait.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+@Slf4j
+public class EmailOutboxConfig {
+
+    /**
+     * Dedicated pool for SMTP sends. Its size caps the number of parallel SMTP
+     * sessions, and it keeps slow mail servers away from Tomcat's request threads.
+     * With spring.threads.virtual.enabled=true the workers are virtual threads;
+     * the pool size still caps the SMTP sessions.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor emailOutboxExecutor(@Value("${app.mail.outbox.workers:4}") int workers,
+                                                      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        // Очередь не нужна: диспетчер берёт из outbox не больше, чем есть свободных воркеров
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("email-outbox-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name("email-outbox-", 1).factory());
+            // Jakarta Mail пишет в сокет внутри synchronized: каждая отправка держит (pin) поток-носитель.
+            // Пока воркеров меньше, чем носителей, HTTP-запросам всегда остаётся свободный носитель
+            int carriers = Runtime.getRuntime().availableProcessors();
+            if (workers >= carriers) {
+                log.warn("app.mail.outbox.workers={} is not below the {} virtual thread carriers; "
+                        + "SMTP sends can pin all of them and stall request handling", workers, carriers);
+            }
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,37 @@
+package de.ait.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Puts {@link CarSearchRateLimiter} in front of the search endpoints when
+ * app.cars.rate-limit.enabled=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cars.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final CarSearchRateLimiter rateLimiter;
+
+    public RateLimitConfig(@Value("${app.cars.rate-limit.capacity:40}") int capacity,
+                           @Value("${app.cars.rate-limit.refill-per-second:20}") double refillPerSecond,
+                           @Value("${app.cars.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+                           @Value("${app.cars.rate-limit.max-clients:100000}") long maxClients,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.rateLimiter = new CarSearchRateLimiter(capacity, refillPerSecond, idleTimeout, maxClients,
+                objectMapper, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimiter)
+                .addPathPatterns("/api/cars/search", "/api/cars/by-*");
+    }
+}
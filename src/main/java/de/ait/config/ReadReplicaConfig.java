@@ -0,0 +1,123 @@
+package de.ait.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Read/write routing with app.datasource.replica.enabled=true. Two Hikari pools are
+ * built: {@code primary} from spring.datasource.* and {@code replica} from
+ * app.datasource.replica.*. The application's DataSource is a
+ * {@link LazyConnectionDataSourceProxy}: it takes the real connection only at the
+ * first statement, once the transaction has marked it read-only. So read-only
+ * transactions (the {@code CarRepository} finders, read-only TransactionTemplates)
+ * go to the replica, and everything else, including plain JdbcTemplate calls and
+ * Liquibase, goes to the primary. The cached {@code findById} and the batch lookup
+ * that fills the same cache are read-write, so the cache never holds a lagging row.
+ * While {@link ReplicaLagMonitor} reports the replica as lagging, read-only
+ * transactions use the primary too; {@code datasource.read.routing} counts where
+ * they went.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:}") String username,
+                                              @Value("${app.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        // Запись на реплику всё равно бы не прошла — пусть драйвер откажет сразу
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                               @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               @Value("${app.datasource.replica.max-lag:2s}") Duration maxLag,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(primaryDataSource, replicaDataSource, maxLag, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry) {
+        ReadOnlyRoutingDataSource readOnlyDataSource =
+                new ReadOnlyRoutingDataSource(replicaLagMonitor, meterRegistry);
+        readOnlyDataSource.setTargetDataSources(Map.of(
+                ReadOnlyRoutingDataSource.REPLICA, replicaDataSource,
+                ReadOnlyRoutingDataSource.PRIMARY, primaryDataSource));
+        readOnlyDataSource.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(readOnlyDataSource);
+        return dataSource;
+    }
+
+    // Куда идёт read-only соединение: на реплику, пока она не отстаёт, иначе на primary
+    private static class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource {
+
+        private static final String REPLICA = "replica";
+        private static final String PRIMARY = "primary";
+
+        private final ReplicaLagMonitor replicaLagMonitor;
+        private final Counter toReplica;
+        private final Counter toPrimary;
+
+        private ReadOnlyRoutingDataSource(ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry) {
+            this.replicaLagMonitor = replicaLagMonitor;
+            this.toReplica = counter(meterRegistry, REPLICA);
+            this.toPrimary = counter(meterRegistry, PRIMARY);
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (replicaLagMonitor.isReplicaUsable()) {
+                toReplica.increment();
+                return REPLICA;
+            }
+            toPrimary.increment();
+            return PRIMARY;
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String target) {
+            return Counter.builder("datasource.read.routing")
+                    .description("Connections of read-only transactions by target database")
+                    .tag("target", target)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package de.ait.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Decides whether read-only transactions may use the replica. The lag is how long the
+ * oldest write the replica has not seen yet has been on the primary: the replica's
+ * newest {@code cars.updated_at} is looked up on the primary through idx_cars_updated_at_id.
+ * Above {@code maxLag}, or when the replica cannot be queried, reads go to the primary
+ * until a later check sees it caught up. Exposed as {@code datasource.replica.lag}
+ * and {@code datasource.replica.usable}.
+ * <p>
+ * updated_at is written by the application clock, so the lag is measured against the
+ * application clock as well.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String REPLICA_LAST_CHANGE_SQL = "SELECT MAX(updated_at) FROM cars";
+    private static final String PRIMARY_OLDEST_UNREPLICATED_SQL = "SELECT MIN(updated_at) FROM cars WHERE updated_at > ?";
+    private static final String PRIMARY_OLDEST_SQL = "SELECT MIN(updated_at) FROM cars";
+
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final Duration maxLag;
+
+    // До первой проверки реплика считается отстающей
+    private volatile boolean replicaUsable;
+    private volatile Duration lag;
+
+    public ReplicaLagMonitor(DataSource primaryDataSource, DataSource replicaDataSource, Duration maxLag,
+                             MeterRegistry meterRegistry) {
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.maxLag = maxLag;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lag == null ? Double.NaN : monitor.lag.toMillis() / 1000.0)
+                .description("How long the oldest write missing on the replica has been on the primary")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+                .description("1 when read-only transactions go to the replica, 0 when they fall back to the primary")
+                .register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:1s}")
+    public void check() {
+        Duration measured;
+        try {
+            measured = measureLag();
+        } catch (DataAccessException exception) {
+            if (replicaUsable || lag != null) {
+                log.warn("Replica lag check failed, reads fall back to the primary", exception);
+            }
+            lag = null;
+            replicaUsable = false;
+            return;
+        }
+
+        boolean usable = measured.compareTo(maxLag) <= 0;
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Replica caught up (lag {} ms), read-only transactions use the replica", measured.toMillis());
+            } else {
+                log.warn("Replica lag {} ms is above {} ms, read-only transactions use the primary",
+                        measured.toMillis(), maxLag.toMillis());
+            }
+        }
+        lag = measured;
+        replicaUsable = usable;
+    }
+
+    private Duration measureLag() {
+        LocalDateTime replicaLastChange = replicaJdbcTemplate.queryForObject(REPLICA_LAST_CHANGE_SQL, LocalDateTime.class);
+
+        // Пустая реплика отстаёт на всё, что есть на primary
+        LocalDateTime oldestUnreplicated = replicaLastChange == null
+                ? primaryJdbcTemplate.queryForObject(PRIMARY_OLDEST_SQL, LocalDateTime.class)
+                : primaryJdbcTemplate.queryForObject(PRIMARY_OLDEST_UNREPLICATED_SQL, LocalDateTime.class, replicaLastChange);
+        return lag(LocalDateTime.now(), oldestUnreplicated);
+    }
+
+    private static Duration lag(LocalDateTime now, LocalDateTime oldestUnreplicated) {
+        if (oldestUnreplicated == null) {
+            return Duration.ZERO;
+        }
+        // Есть непрореплицированная запись — отставание больше нуля, даже если часы разошлись
+        Duration lag = Duration.between(oldestUnreplicated, now);
+        return lag.isNegative() || lag.isZero() ? Duration.ofNanos(1) : lag;
+    }
+}
@@ -0,0 +1,94 @@
+package de.ait.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Watches for virtual threads that block while pinned to their carrier, which on
+ * Java 21 happens when they block inside {@code synchronized} (JDBC drivers, Jakarta
+ * Mail). Every pin longer than {@code app.threads.pinning-monitor.threshold} counts in
+ * {@code jvm.threads.virtual.pinned}; the first pin per code location is logged with
+ * its stack, so the offending library call can be found without -Djdk.tracePinnedThreads.
+ * Only active with spring.threads.virtual.enabled=true.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Counter pinned;
+    private final Set<String> reportedLocations = ConcurrentHashMap.newKeySet();
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to a carrier thread")
+                .register(meterRegistry);
+    }
+
+    @Value("${app.threads.pinning-monitor.threshold:20ms}")
+    private Duration threshold;
+
+    @PostConstruct
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        recordingStream.close();
+    }
+
+    public double pinnedCount() {
+        return pinned.count();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String location = frames.stream()
+                .filter(frame -> frame.isJavaFrame() && !isJdkFrame(frame))
+                .findFirst()
+                .map(VirtualThreadPinningMonitor::describe)
+                .orElse("unknown");
+
+        if (reportedLocations.add(location)) {
+            StringBuilder stack = new StringBuilder();
+            frames.stream().limit(LOGGED_FRAMES).forEach(frame -> stack.append("\n\tat ").append(describe(frame)));
+            log.warn("Virtual thread pinned for {} ms at {}; further pins here are only counted{}",
+                    event.getDuration().toMillis(), location, stack);
+        }
+    }
+
+    // Верх стека — парковка в самом JDK, интересна первая строка библиотеки или приложения
+    private static boolean isJdkFrame(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.");
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
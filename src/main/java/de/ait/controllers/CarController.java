@@ -1,18 +1,60 @@
 package de.ait.controllers;
 
+import de.ait.dto.CarChange;
+import de.ait.dto.CarChangesPage;
+import de.ait.dto.CarImportReport;
+import de.ait.dto.CarStats;
+import de.ait.dto.CarSearchCriteria;
+import de.ait.dto.CarSearchHit;
+import de.ait.enums.CarChangeType;
+import de.ait.enums.CarExportFormat;
+import de.ait.enums.CarImportFormat;
+import de.ait.enums.CarStatus;
 import de.ait.enums.FuelType;
 import de.ait.model.Car;
 import de.ait.repository.CarRepository;
+import de.ait.repository.CarSpecifications;
+import de.ait.service.CarBatchLookupService;
+import de.ait.service.CarExportService;
+import de.ait.service.CarImportService;
+import de.ait.service.CarQueryCoalescer;
+import de.ait.service.CarRangeQueryService;
+import de.ait.service.CarSearchIndex;
+import de.ait.service.CarStatsService;
+import de.ait.service.CarStreamingService;
+import de.ait.service.CarWriteService;
+import de.ait.util.CarChangeCursor;
+import de.ait.util.CarCursor;
+import de.ait.util.CarEtags;
 import de.ait.validation.Validator;
 import io.swagger.v3.oas.annotations.Operation;
+import org.springdoc.core.annotations.ParameterObject;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedModel;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Locale;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 @Tag(name = "Car management API")
 @RestController
@@ -20,17 +62,57 @@ import java.util.Map;
 @Slf4j
 public class CarController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of(
+            "id", "brand", "model", "productionYear", "mileage", "price", "horsepower", "status", "fuelType", "transmission");
+
     private final CarRepository carRepository;
     private final Validator<Car> carValidator;
-
-    public CarController(CarRepository carRepository, Validator<Car> carValidator) {
+    private final CarStreamingService carStreamingService;
+    private final CarImportService carImportService;
+    private final CarExportService carExportService;
+    private final CarBatchLookupService carBatchLookupService;
+    private final CarWriteService carWriteService;
+    private final CarStatsService carStatsService;
+    private final CarSearchIndex carSearchIndex;
+    private final CarRangeQueryService carRangeQueryService;
+    private final CarQueryCoalescer carQueryCoalescer;
+
+    public CarController(CarRepository carRepository, Validator<Car> carValidator,
+                         CarStreamingService carStreamingService, CarImportService carImportService,
+                         CarExportService carExportService, CarBatchLookupService carBatchLookupService,
+                         CarWriteService carWriteService, CarStatsService carStatsService,
+                         CarSearchIndex carSearchIndex, CarRangeQueryService carRangeQueryService,
+                         CarQueryCoalescer carQueryCoalescer) {
         this.carRepository = carRepository;
         this.carValidator = carValidator;
+        this.carStreamingService = carStreamingService;
+        this.carImportService = carImportService;
+        this.carExportService = carExportService;
+        this.carBatchLookupService = carBatchLookupService;
+        this.carWriteService = carWriteService;
+        this.carStatsService = carStatsService;
+        this.carSearchIndex = carSearchIndex;
+        this.carRangeQueryService = carRangeQueryService;
+        this.carQueryCoalescer = carQueryCoalescer;
     }
 
     @Value("${app.dealership.name:AIT Gr.59 API}")
     private String dealerShipName;
 
+    @Value("${app.cars.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.cars.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${app.cars.batch.max-ids:500}")
+    private int maxBatchIds;
+
+    @Value("${app.cars.changes.safety-window:5s}")
+    private Duration changesSafetyWindow;
+
     @GetMapping("/info")
     public ResponseEntity<String> getInfo() {
         return ResponseEntity.ok("Welcome to the " + dealerShipName + " car dealership!");
@@ -38,17 +120,146 @@ public class CarController {
 
     // ---------- GET ----------
 
-    @Operation(summary = "Get all cars")
+    @Operation(summary = "Get a page of cars ordered by id; the next page cursor is returned in the X-Next-Cursor header")
     @GetMapping
-    public ResponseEntity<List<Car>> getAllCars() {
-        return ResponseEntity.ok(carRepository.findAll());
+    public ResponseEntity<List<Car>> getAllCars(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+
+        int pageSize = size == null ? defaultPageSize : size;
+
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        long afterId;
+        try {
+            afterId = cursor == null ? 0 : CarCursor.decode(cursor);
+        } catch (IllegalArgumentException exception) {
+            log.warn("Rejected car listing cursor: {}", cursor);
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Берём на одну запись больше, чтобы понять, есть ли следующая страница
+        List<Car> cars = carRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+
+        if (cars.size() <= pageSize) {
+            return ResponseEntity.ok(cars);
+        }
+
+        List<Car> page = cars.subList(0, pageSize);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, CarCursor.encode(page.getLast().getId()))
+                .body(page);
+    }
+
+    @Operation(summary = "Stream all cars as one JSON array without loading them into memory")
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllCars() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(carStreamingService::writeAllAsJsonArray);
+    }
+
+    @Operation(summary = "Export the inventory as NDJSON or CSV straight from a DB cursor; gzip if the client accepts it")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCars(
+            @RequestParam(defaultValue = "NDJSON") CarExportFormat format,
+            @RequestParam(required = false) CarStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        String fileName = format == CarExportFormat.CSV ? "cars.csv" : "cars.ndjson";
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format == CarExportFormat.CSV ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (!gzip) {
+            return response.body(outputStream -> carExportService.export(outputStream, format, status, updatedSince));
+        }
+
+        return response
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(outputStream -> {
+                    try (GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 64 * 1024)) {
+                        carExportService.export(gzipStream, format, status, updatedSince);
+                    }
+                });
+    }
+
+    @Operation(summary = "Get cars created, updated or deleted after the cursor; pass nextCursor back to continue")
+    @GetMapping("/changes")
+    public ResponseEntity<CarChangesPage> getChanges(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+
+        int pageSize = size == null ? defaultPageSize : size;
+
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        CarChangeCursor position;
+        try {
+            position = cursor == null ? CarChangeCursor.START : CarChangeCursor.decode(cursor);
+        } catch (IllegalArgumentException exception) {
+            log.warn("Rejected car change cursor: {}", cursor);
+            return ResponseEntity.badRequest().build();
+        }
+
+        // updated_at ставится до коммита: запись, которая ещё не закоммичена, может оказаться позади курсора.
+        // Ленту отдаём только до now - safety-window, чтобы такие записи успели стать видимыми
+        LocalDateTime until = LocalDateTime.now().minus(changesSafetyWindow);
+        List<Car> cars = carRepository.findChangedSince(position.getUpdatedAt(), position.getId(), until,
+                Limit.of(pageSize + 1));
+        boolean hasMore = cars.size() > pageSize;
+        if (hasMore) {
+            cars = cars.subList(0, pageSize);
+        }
+
+        List<CarChange> changes = new ArrayList<>(cars.size());
+        for (Car car : cars) {
+            if (car.isDeleted()) {
+                changes.add(new CarChange(CarChangeType.DELETED, car.getId(), car.getUpdatedAt(), null));
+            } else if (car.getUpdatedAt().equals(car.getCreatedAt())) {
+                changes.add(new CarChange(CarChangeType.CREATED, car.getId(), car.getUpdatedAt(), car));
+            } else {
+                changes.add(new CarChange(CarChangeType.UPDATED, car.getId(), car.getUpdatedAt(), car));
+            }
+            position = new CarChangeCursor(car.getUpdatedAt(), car.getId());
+        }
+
+        return ResponseEntity.ok(new CarChangesPage(changes, position.encode(), hasMore));
+    }
+
+    @Operation(summary = "Get many cars by id in one call; results keep the request order and mark missing ids")
+    @GetMapping("/batch")
+    public ResponseEntity<Object> getCarsByIds(@RequestParam List<Long> ids) {
+
+        if (ids.isEmpty() || ids.size() > maxBatchIds || ids.contains(null)) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(Map.of("errors", List.of("Between 1 and " + maxBatchIds + " ids are required")));
+        }
+
+        return ResponseEntity.ok(carBatchLookupService.findInRequestOrder(ids));
+    }
+
+    @Operation(summary = "Inventory statistics: counts per brand, fuel type, transmission and status, price and horsepower min/max/avg/percentiles")
+    @GetMapping("/stats")
+    public ResponseEntity<CarStats> getStats() {
+        return ResponseEntity.ok(carStatsService.getStats());
     }
 
-    @Operation(summary = "Get car by id")
+    @Operation(summary = "Get car by id; supports If-None-Match with the returned ETag")
     @GetMapping("/{id}")
     public ResponseEntity<Car> getCarById(@PathVariable Long id) {
+        // При совпадении If-None-Match Spring отвечает 304 и не сериализует тело
         return carRepository.findById(id)
-                .map(ResponseEntity::ok)
+                .map(car -> ResponseEntity.ok().eTag(CarEtags.of(car)).body(car))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -58,6 +269,14 @@ public class CarController {
     @PostMapping
     public ResponseEntity<Object> addCar(@RequestBody Car car) {
 
+        // id выдаёт последовательность; с чужим id save() попытался бы писать в существующую строку
+        if (car.getId() != null) {
+            log.warn("Car creation rejected: client sent id {}", car.getId());
+            return ResponseEntity
+                    .badRequest()
+                    .body(Map.of("errors", List.of("Id must not be set when creating a car")));
+        }
+
         List<String> errors = carValidator.validateWithErrors(car);
 
         if (!errors.isEmpty()) {
@@ -67,21 +286,39 @@ public class CarController {
                     .body(Map.of("errors", errors));
         }
 
-        Car savedCar = carRepository.save(car);
+        Car savedCar = carWriteService.create(car);
         return ResponseEntity
                 .status(HttpStatus.CREATED)
                 .body(savedCar.getId());
     }
 
+    @Operation(summary = "Bulk import cars from a JSON array, NDJSON or CSV body; invalid rows are reported, not fatal")
+    @PostMapping(value = "/import", consumes = {
+            MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<CarImportReport> importCars(HttpServletRequest request) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+
+        CarImportFormat format;
+        if (MediaType.APPLICATION_NDJSON.includes(contentType)) {
+            format = CarImportFormat.NDJSON;
+        } else if (contentType.getSubtype().equals("csv")) {
+            format = CarImportFormat.CSV;
+        } else {
+            format = CarImportFormat.JSON;
+        }
+
+        // Тело читается потоком, а не через @RequestBody, чтобы не держать весь файл в памяти
+        return ResponseEntity.ok(carImportService.importCars(request.getInputStream(), format));
+    }
+
     // ---------- PUT ----------
 
-    @Operation(summary = "Update one car by id")
+    @Operation(summary = "Update one car by id and return the stored row with its ETag; send the ETag in If-Match to fail with 412 on a concurrent edit")
     @PutMapping("/{id}")
-    public ResponseEntity<Object> updateCar(@PathVariable Long id, @RequestBody Car car) {
-
-        if (!carRepository.existsById(id)) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<Object> updateCar(
+            @PathVariable Long id,
+            @RequestBody Car car,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         List<String> errors = carValidator.validateWithErrors(car);
 
@@ -92,33 +329,91 @@ public class CarController {
                     .body(Map.of("errors", errors));
         }
 
-        car.setId(id);
-        Car updatedCar = carRepository.save(car);
-        return ResponseEntity.ok(updatedCar);
+        try {
+            return carWriteService.update(id, car, CarEtags.expectedVersion(ifMatch, id))
+                    .<ResponseEntity<Object>>map(this::updatedResponse)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException exception) {
+            log.warn("Car with id {} was changed concurrently, update rejected", id);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
     }
 
     // ---------- DELETE ----------
 
-    @Operation(summary = "Delete a car by id")
+    @Operation(summary = "Delete a car by id; the row is only flagged as deleted and shows up in /changes")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteCar(@PathVariable Long id) {
-
-        if (!carRepository.existsById(id)) {
-            log.warn("Car with id {} does not exist", id);
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<Void> deleteCar(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        try {
+            if (!carWriteService.delete(id, CarEtags.expectedVersion(ifMatch, id))) {
+                log.warn("Car with id {} does not exist", id);
+                return ResponseEntity.notFound().build();
+            }
+        } catch (OptimisticLockingFailureException exception) {
+            log.warn("Car with id {} was changed concurrently, delete rejected", id);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         }
 
-        carRepository.deleteById(id);
         log.warn("Car with id {} has been deleted", id);
         return ResponseEntity.noContent().build();
     }
 
     // ---------- SEARCH ----------
 
+    @Operation(summary = "Search cars by any combination of filters with sorting and paging")
+    @GetMapping("/query")
+    public ResponseEntity<PagedModel<Car>> queryCars(
+            @ParameterObject CarSearchCriteria criteria,
+            @ParameterObject @PageableDefault(size = 50, sort = "id") Pageable pageable) {
+
+        if (!criteria.hasValidRanges()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                log.warn("Rejected car query sort property: {}", order.getProperty());
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        return ResponseEntity.ok(new PagedModel<>(carRepository.findAll(CarSpecifications.matching(criteria), pageable)));
+    }
+
+    @Operation(summary = "Free-text search over brand, model and color; tolerates typos and matches word prefixes")
+    @GetMapping("/fulltext")
+    public ResponseEntity<List<CarSearchHit>> fullTextSearch(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        if (q.isBlank() || limit < 1 || limit > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(carSearchIndex.search(q, limit));
+    }
+
+    @Operation(summary = "Autocomplete: brand, model and color words starting with the prefix, most common first")
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        if (prefix.isBlank() || limit < 1 || limit > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(carSearchIndex.suggest(prefix, limit));
+    }
+
     @Operation(summary = "Search cars by brand")
     @GetMapping("/search")
     public ResponseEntity<List<Car>> searchCars(@RequestParam String brand) {
-        return ResponseEntity.ok(carRepository.findByBrand(brand));
+        // Одинаковые запросы, пришедшие одновременно, выполняются в БД один раз
+        return okWithEtag(carQueryCoalescer.coalesce("search:" + brand, () -> carRepository.findByBrand(brand)));
     }
 
     @Operation(summary = "Search car by price range")
@@ -131,7 +426,8 @@ public class CarController {
             return ResponseEntity.badRequest().build();
         }
 
-        return ResponseEntity.ok(carRepository.findByPriceBetween(min, max));
+        return okWithEtag(carQueryCoalescer.coalesce("by-price:" + min + ":" + max,
+                () -> carRangeQueryService.findByPriceBetween(min, max)));
     }
 
     @Operation(summary = "Search car by color")
@@ -142,20 +438,22 @@ public class CarController {
             return ResponseEntity.badRequest().build();
         }
 
-        return ResponseEntity.ok(carRepository.findByColorIgnoreCase(color));
+        return okWithEtag(carQueryCoalescer.coalesce("by-color:" + color.toUpperCase(Locale.ROOT),
+                () -> carRepository.findByColorIgnoreCase(color)));
     }
 
     @Operation(summary = "Search car by fuel type")
     @GetMapping("/by-fuel")
     public ResponseEntity<List<Car>> searchByFuelType(@RequestParam FuelType fuelType) {
 
-        List<Car> cars = carRepository.findByFuelType(fuelType);
+        List<Car> cars = carQueryCoalescer.coalesce("by-fuel:" + fuelType,
+                () -> carRangeQueryService.findByFuelType(fuelType));
 
         if (cars.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(cars);
+        return okWithEtag(cars);
     }
 
     @Operation(summary = "Search cars by horsepower range")
@@ -168,12 +466,22 @@ public class CarController {
             return ResponseEntity.badRequest().build();
         }
 
-        List<Car> cars = carRepository.findByHorsepowerBetween(minHp, maxHp);
+        List<Car> cars = carQueryCoalescer.coalesce("by-power:" + minHp + ":" + maxHp,
+                () -> carRangeQueryService.findByHorsepowerBetween(minHp, maxHp));
 
         if (cars.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(cars);
+        return okWithEtag(cars);
+    }
+
+    private ResponseEntity<Object> updatedResponse(Car updatedCar) {
+        return ResponseEntity.ok().eTag(CarEtags.of(updatedCar)).body(updatedCar);
+    }
+
+    // ETag из (id, version) найденных машин: повторный опрос без изменений получает 304 без тела
+    private static ResponseEntity<List<Car>> okWithEtag(List<Car> cars) {
+        return ResponseEntity.ok().eTag(CarEtags.of(cars)).body(cars);
     }
 }
@@ -1,12 +1,30 @@
 package de.ait.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import de.ait.dto.CampaignRecipient;
+import de.ait.dto.CarOfferCampaignRequest;
+import de.ait.dto.CarOfferCampaignStatus;
 import de.ait.dto.CarOfferEmailRequest;
-import de.ait.service.CarOfferEmailService;
+import de.ait.enums.EmailType;
+import de.ait.repository.CarRepository;
+import de.ait.service.EmailOutboxService;
+import de.ait.util.CampaignRecipientCsvReader;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/email")
@@ -14,12 +32,75 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class EmailController {
 
-    private final CarOfferEmailService carOfferEmailService;
+    private final EmailOutboxService emailOutboxService;
+    private final CarRepository carRepository;
+    private final Validator validator;
+
+    @Value("${app.mail.bulk.max-recipients:10000}")
+    private int maxRecipients;
 
     @PostMapping("/car-offer")
     @ResponseStatus(HttpStatus.ACCEPTED)
     public void sendCarOfferEmail(@RequestBody @Valid CarOfferEmailRequest carOfferEmailRequest) {
-        log.info("Sending car offer email for request: {}", carOfferEmailRequest);
-        carOfferEmailService.sendCarOfferEmail(carOfferEmailRequest);
+        log.info("Queueing car offer email for request: {}", carOfferEmailRequest);
+        emailOutboxService.enqueue(EmailType.CAR_OFFER, carOfferEmailRequest);
+    }
+
+    @PostMapping("/car-offer/bulk")
+    public ResponseEntity<?> sendCarOfferCampaign(@RequestBody @Valid CarOfferCampaignRequest request) {
+        log.info("Car offer campaign for car {} to {} recipients", request.getCarId(), request.getRecipients().size());
+        return queueCampaign(request.getCarId(), request.getOfferPrice(), request.getRecipients());
+    }
+
+    @PostMapping(value = "/car-offer/bulk/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> sendCarOfferCampaignFromCsv(
+            @RequestParam Long carId,
+            @RequestParam Integer offerPrice,
+            @RequestParam("file") MultipartFile file) throws IOException {
+
+        if (offerPrice == null || offerPrice <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<CampaignRecipient> recipients;
+        try {
+            recipients = CampaignRecipientCsvReader.read(file.getInputStream());
+        } catch (JsonProcessingException exception) {
+            log.warn("Car offer campaign CSV {} can not be parsed: {}", file.getOriginalFilename(), exception.getOriginalMessage());
+            return ResponseEntity.badRequest().body(Map.of("errors", List.of(exception.getOriginalMessage())));
+        }
+
+        // Те же ограничения, что @Valid проверяет у JSON-рассылки
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < recipients.size(); i++) {
+            for (ConstraintViolation<CampaignRecipient> violation : validator.validate(recipients.get(i))) {
+                errors.add("recipients[" + i + "]." + violation.getPropertyPath() + ": " + violation.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            log.warn("Car offer campaign CSV {} rejected | Errors: {}", file.getOriginalFilename(), errors);
+            return ResponseEntity.badRequest().body(Map.of("errors", errors));
+        }
+
+        log.info("Car offer campaign for car {} to {} recipients from {}", carId, recipients.size(), file.getOriginalFilename());
+        return queueCampaign(carId, offerPrice, recipients);
+    }
+
+    @GetMapping("/car-offer/bulk/{campaignId}")
+    public ResponseEntity<CarOfferCampaignStatus> getCarOfferCampaign(@PathVariable String campaignId) {
+        return ResponseEntity.of(emailOutboxService.campaignStatus(campaignId));
+    }
+
+    private ResponseEntity<?> queueCampaign(Long carId, Integer offerPrice, List<CampaignRecipient> recipients) {
+        if (recipients.isEmpty() || recipients.size() > maxRecipients) {
+            log.warn("Car offer campaign rejected: {} recipients (max {})", recipients.size(), maxRecipients);
+            return ResponseEntity.badRequest().build();
+        }
+        if (!carRepository.existsById(carId)) {
+            log.warn("Car offer campaign rejected: car {} not found", carId);
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.accepted().body(emailOutboxService.enqueueCampaign(carId, offerPrice, recipients));
     }
 }
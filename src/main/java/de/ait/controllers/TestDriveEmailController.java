@@ -1,7 +1,8 @@
 package de.ait.controllers;
 
 import de.ait.dto.TestDriveConfirmationEmailRequest;
-import de.ait.service.TestDriveEmailService;
+import de.ait.enums.EmailType;
+import de.ait.service.EmailOutboxService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -14,20 +15,20 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/email/test-drive")
 public class TestDriveEmailController {
 
-    private final TestDriveEmailService service;
+    private final EmailOutboxService emailOutboxService;
     private static final Logger logger = LoggerFactory.getLogger(TestDriveEmailController.class);
 
     @PostMapping("/confirmation")
     public ResponseEntity<?> sendConfirmation(@RequestBody @Valid TestDriveConfirmationEmailRequest request) {
         logger.info("Received test drive confirmation request: {}", request);
-        service.sendConfirmationEmail(request);
+        emailOutboxService.enqueue(EmailType.TEST_DRIVE_CONFIRMATION, request);
         return ResponseEntity.accepted().build();
     }
 
     @PostMapping("/reminder")
     public ResponseEntity<?> sendReminder(@RequestBody @Valid TestDriveConfirmationEmailRequest request) {
         logger.info("Received test drive reminder request: {}", request);
-        service.sendReminderEmail(request);
+        emailOutboxService.enqueue(EmailType.TEST_DRIVE_REMINDER, request);
         return ResponseEntity.accepted().build();
     }
 }
@@ -0,0 +1,20 @@
+package de.ait.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignRecipient {
+
+    @NotBlank
+    @Email
+    private String email;
+
+    @NotBlank
+    private String clientName;
+}
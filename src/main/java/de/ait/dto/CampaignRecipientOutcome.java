@@ -0,0 +1,23 @@
+package de.ait.dto;
+
+import de.ait.enums.CampaignRecipientStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class CampaignRecipientOutcome {
+
+    private String email;
+
+    private String clientName;
+
+    private CampaignRecipientStatus status;
+
+    // Последняя ошибка отправки, только у FAILED
+    private String error;
+
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,22 @@
+package de.ait.dto;
+
+import de.ait.enums.CarChangeType;
+import de.ait.model.Car;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class CarChange {
+
+    private CarChangeType type;
+
+    private Long id;
+
+    private LocalDateTime changedAt;
+
+    // null для DELETED
+    private Car car;
+}
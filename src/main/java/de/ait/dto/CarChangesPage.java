@@ -0,0 +1,18 @@
+package de.ait.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class CarChangesPage {
+
+    private List<CarChange> changes;
+
+    // Передаётся в следующий запрос; если изменений нет — остаётся прежним
+    private String nextCursor;
+
+    private boolean hasMore;
+}
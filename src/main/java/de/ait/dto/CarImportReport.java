@@ -0,0 +1,32 @@
+package de.ait.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class CarImportReport {
+
+    private long total;
+
+    private long imported;
+
+    private long failed;
+
+    private long durationMs;
+
+    // Не больше app.cars.import.max-reported-errors строк
+    private List<RowError> errors;
+
+    @Getter
+    @AllArgsConstructor
+    public static class RowError {
+
+        // Номер записи в файле, начиная с 1
+        private long row;
+
+        private List<String> errors;
+    }
+}
@@ -0,0 +1,23 @@
+package de.ait.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Payload outbox-сообщения CAR_OFFER_CAMPAIGN_BATCH: одно SMTP-соединение на батч.
+// Получатели идут подряд, i-й из них — получатель firstPosition + i в рассылке
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarOfferCampaignBatch {
+
+    private Long carId;
+
+    private Integer offerPrice;
+
+    private int firstPosition;
+
+    private List<CampaignRecipient> recipients;
+}
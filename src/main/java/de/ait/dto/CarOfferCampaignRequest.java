@@ -0,0 +1,29 @@
+package de.ait.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarOfferCampaignRequest {
+
+    @NotNull
+    private Long carId;
+
+    @NotNull
+    @Positive
+    private Integer offerPrice;
+
+    @NotEmpty
+    private List<@Valid CampaignRecipient> recipients;
+}
@@ -0,0 +1,15 @@
+package de.ait.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CarOfferCampaignResponse {
+
+    private String campaignId;
+
+    private int recipients;
+
+    private int batches;
+}
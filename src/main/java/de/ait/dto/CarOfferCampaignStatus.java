@@ -0,0 +1,41 @@
+package de.ait.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of a car offer campaign: the outcome of every recipient, in the order they
+ * were submitted, and the send rate. {@code startedAt} is when the first batch was
+ * picked up, {@code finishedAt} when the last recipient got a final outcome.
+ * {@code sentPerSecond} counts sent emails from {@code startedAt} to {@code finishedAt},
+ * or to now while the campaign is still running.
+ */
+@Getter
+@AllArgsConstructor
+public class CarOfferCampaignStatus {
+
+    private String campaignId;
+
+    private Long carId;
+
+    private int total;
+
+    private long sent;
+
+    private long failed;
+
+    private long pending;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private Double sentPerSecond;
+
+    private List<CampaignRecipientOutcome> recipients;
+}
@@ -0,0 +1,54 @@
+package de.ait.dto;
+
+import de.ait.enums.CarStatus;
+import de.ait.enums.FuelType;
+import de.ait.enums.Transmission;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+public class CarSearchCriteria {
+
+    private String brand;
+
+    private Integer minPrice;
+
+    private Integer maxPrice;
+
+    private String color;
+
+    private FuelType fuelType;
+
+    private Integer minHp;
+
+    private Integer maxHp;
+
+    private CarStatus status;
+
+    private Transmission transmission;
+
+    private Integer minYear;
+
+    private Integer maxYear;
+
+    private Integer minMileage;
+
+    private Integer maxMileage;
+
+    public boolean hasValidRanges() {
+        return isValidRange(minPrice, maxPrice)
+                && isValidRange(minHp, maxHp)
+                && isValidRange(minYear, maxYear)
+                && isValidRange(minMileage, maxMileage);
+    }
+
+    private static boolean isValidRange(Integer min, Integer max) {
+        if ((min != null && min < 0) || (max != null && max < 0)) {
+            return false;
+        }
+        return min == null || max == null || min <= max;
+    }
+}
@@ -0,0 +1,20 @@
+package de.ait.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CarSearchHit {
+
+    private Long id;
+
+    private String brand;
+
+    private String model;
+
+    private String color;
+
+    // Чем больше, тем лучше совпадение; полные данные машины — через /api/cars/batch
+    private double score;
+}
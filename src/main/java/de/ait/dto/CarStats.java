@@ -0,0 +1,42 @@
+package de.ait.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class CarStats {
+
+    private long total;
+
+    // brand, fuelType, transmission, status -> значение -> количество машин
+    private Map<String, Map<String, Long>> facets;
+
+    private ValueStats price;
+
+    private ValueStats horsepower;
+
+    // Когда сводка последний раз пересчитывалась из БД
+    private LocalDateTime computedAt;
+
+    @Getter
+    @AllArgsConstructor
+    public static class ValueStats {
+
+        // null, если машин нет
+        private Integer min;
+
+        private Integer max;
+
+        private Double avg;
+
+        private Integer p50;
+
+        private Integer p90;
+
+        private Integer p99;
+    }
+}
@@ -0,0 +1,7 @@
+package de.ait.enums;
+
+public enum CarChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,6 @@
+package de.ait.enums;
+
+public enum CarExportFormat {
+    NDJSON,
+    CSV
+}
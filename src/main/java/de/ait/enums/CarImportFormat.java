@@ -0,0 +1,7 @@
+package de.ait.enums;
+
+public enum CarImportFormat {
+    JSON,
+    NDJSON,
+    CSV
+}
@@ -0,0 +1,8 @@
+package de.ait.enums;
+
+public enum EmailType {
+    CAR_OFFER,
+    CAR_OFFER_CAMPAIGN_BATCH,
+    TEST_DRIVE_CONFIRMATION,
+    TEST_DRIVE_REMINDER
+}
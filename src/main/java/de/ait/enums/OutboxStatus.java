@@ -0,0 +1,8 @@
+package de.ait.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
@@ -0,0 +1,29 @@
+package de.ait.event;
+
+import de.ait.enums.CarChangeType;
+import de.ait.model.Car;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a car write has been committed.
+ */
+@Getter
+@AllArgsConstructor
+public class CarChangedEvent {
+
+    private CarChangeType type;
+
+    private Long id;
+
+    // Сохранённое состояние; null для DELETED
+    private Car car;
+
+    // Состояние до записи, возвращённое тем же UPDATE; null для CREATED
+    private Car previous;
+
+    // Версия строки после записи
+    public long getVersion() {
+        return car != null ? car.getVersion() : previous.getVersion() + 1;
+    }
+}
@@ -1,5 +1,7 @@
 package de.ait.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import de.ait.enums.CarStatus;
 import de.ait.enums.FuelType;
 import de.ait.enums.Transmission;
@@ -10,23 +12,35 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.SQLRestriction;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 //В Intity не использовать @Value и @Data!!!
 
+// Удаление только ставит флаг deleted (CarRepository.softDeleteById), а все запросы через JPA видят лишь живые записи.
+// Физически строки удаляет CarTombstonePurgeJob
 @Entity
 @Table(name = "cars")
+@SQLRestriction("deleted = FALSE")
 @Getter
 @Setter
 @NoArgsConstructor
-public class Car {
+public class Car implements VersionedCar {
+    // Последовательность с шагом 50 (011-switch-cars-id-to-sequence) — Hibernate может вставлять машины пачками
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cars_seq")
+    @SequenceGenerator(name = "cars_seq", sequenceName = "cars_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -53,6 +67,11 @@ public class Car {
 
     private String color;
 
+    // Вычисляется в БД (009-add-search-indexes), нужна для индексного поиска по цвету без учёта регистра
+    @JsonIgnore
+    @Column(name = "color_upper", insertable = false, updatable = false)
+    private String colorUpper;
+
     @Min(value = 1, message = "Horse power must be more than 0")
     private int horsepower;
 
@@ -64,6 +83,27 @@ public class Car {
     @Column(nullable = false)
     private Transmission transmission;
 
+    // Колонки из 005-add-audit-columns, по updated_at работает лента изменений /api/cars/changes
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Колонка из 014-add-cars-version: оптимистическая блокировка, из неё же строится ETag
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private Long version;
+
+    // Колонка из 007-add-soft-delete-flag; выставляется только мягким удалением в CarRepository
+    @JsonIgnore
+    @Column(nullable = false, insertable = false, updatable = false)
+    private boolean deleted;
+
     public Car(String brand, String model, int productionYear, int mileage, int price, String status, String color, int horsepower, String fuelType, String transmission) {
         this.brand = brand;
         this.model = model;
@@ -77,4 +117,16 @@ public class Car {
         this.transmission = Transmission.valueOf(transmission);
     }
 
+    // Точность до микросекунд — как у колонки timestamp, иначе курсор ленты изменений не совпадёт со значением в БД
+    @PrePersist
+    void onCreate() {
+        createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
 }
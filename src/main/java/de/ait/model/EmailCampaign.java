@@ -0,0 +1,47 @@
+package de.ait.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "email_campaigns")
+@Getter
+@Setter
+@NoArgsConstructor
+public class EmailCampaign {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "car_id", nullable = false)
+    private Long carId;
+
+    @Column(nullable = false)
+    private int recipients;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Когда воркер взял первый батч
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    // Когда у последнего получателя появился окончательный результат
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public EmailCampaign(String id, Long carId, int recipients, LocalDateTime now) {
+        this.id = id;
+        this.carId = carId;
+        this.recipients = recipients;
+        this.createdAt = now;
+    }
+}
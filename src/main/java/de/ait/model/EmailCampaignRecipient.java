@@ -0,0 +1,61 @@
+package de.ait.model;
+
+import de.ait.enums.CampaignRecipientStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "email_campaign_recipients")
+@Getter
+@Setter
+@NoArgsConstructor
+public class EmailCampaignRecipient {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_campaign_recipients_seq")
+    @SequenceGenerator(name = "email_campaign_recipients_seq", sequenceName = "email_campaign_recipients_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "campaign_id", nullable = false, length = 36)
+    private String campaignId;
+
+    // Номер получателя в рассылке, с 0
+    @Column(nullable = false)
+    private int position;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(name = "client_name", nullable = false)
+    private String clientName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CampaignRecipientStatus status;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public EmailCampaignRecipient(String campaignId, int position, String email, String clientName) {
+        this.campaignId = campaignId;
+        this.position = position;
+        this.email = email;
+        this.clientName = clientName;
+        this.status = CampaignRecipientStatus.PENDING;
+    }
+}
@@ -0,0 +1,73 @@
+package de.ait.model;
+
+import de.ait.enums.EmailType;
+import de.ait.enums.OutboxStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "email_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+public class EmailOutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmailType type;
+
+    // Запрос на отправку в виде JSON
+    @Column(nullable = false, length = 100000)
+    private String payload;
+
+    // Рассылка, к которой относится сообщение; null для одиночных писем
+    @Column(name = "campaign_id", length = 36)
+    private String campaignId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public EmailOutboxMessage(EmailType type, String payload, LocalDateTime now) {
+        this(type, payload, null, now);
+    }
+
+    public EmailOutboxMessage(EmailType type, String payload, String campaignId, LocalDateTime now) {
+        this.type = type;
+        this.payload = payload;
+        this.campaignId = campaignId;
+        this.status = OutboxStatus.PENDING;
+        this.nextAttemptAt = now;
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+}
@@ -1,15 +1,32 @@
 package de.ait.repository;
 
+import de.ait.config.CacheConfig;
 import de.ait.enums.CarStatus;
 import de.ait.enums.FuelType;
 import de.ait.model.Car;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface CarRepository extends JpaRepository<Car, Long> {
+// Все запросы — read-only транзакции: при включённой реплике они уходят на неё (ReadReplicaConfig).
+// Методы записи, объявленные здесь, помечены @Transactional явно, иначе унаследуют readOnly
+@Transactional(readOnly = true)
+public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car>, CarWriteOperations {
 
     //SELECT * FROM CARS WHERE brand = ? SQL запрос
 
@@ -21,12 +38,170 @@ public interface CarRepository extends JpaRepository<Car, Long> {
 
     List<Car> findByPriceBetween(int min, int max);
 
-    List<Car> findByColorIgnoreCase(String color);
+    // upper(color) хранится в индексируемой колонке color_upper
+    @Query("select c from Car c where c.colorUpper = upper(:color)")
+    List<Car> findByColorIgnoreCase(@Param("color") String color);
 
     List<Car> findByFuelType(FuelType fuelType);
 
     List<Car> findByHorsepowerBetween(int minHp, int maxHp);
 
+    // Не read-only: кэш наполняется только с primary. Строка с отставшей реплики, закэшированная
+    // сразу после сброса, жила бы до TTL и давала устаревший ETag
+    @Override
+    @Transactional
+    @Cacheable(cacheNames = CacheConfig.CARS_CACHE, key = "#p0", unless = "#result == null")
     Optional<Car> findById(Long id);
 
+    // Keyset-пагинация: WHERE id > ? ORDER BY id LIMIT ? — любая страница стоит как первая
+
+    List<Car> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Лента изменений: всё, что изменилось после курсора (updated_at, id) и не позже :until, включая удалённые записи.
+    // Запрос нативный, чтобы фильтры по deleted его не касались; идёт по индексу idx_cars_updated_at_id
+    @Query(value = """
+            SELECT * FROM cars
+            WHERE (updated_at > :updatedAt OR (updated_at = :updatedAt AND id > :id)) AND updated_at <= :until
+            ORDER BY updated_at, id""", nativeQuery = true)
+    List<Car> findChangedSince(@Param("updatedAt") LocalDateTime updatedAt, @Param("id") long id,
+                               @Param("until") LocalDateTime until, Limit limit);
+
+    // Запись одним оператором, который возвращает строку до записи (CarWriteOperations):
+    // по ней CarWriteService строит сохранённую строку и событие с предыдущим состоянием
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, key = "#p0")
+    Optional<Car> updateReturningPrevious(Long id, Car car, Long expectedVersion, LocalDateTime now);
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, key = "#p0")
+    Optional<Car> softDeleteReturningPrevious(Long id, Long expectedVersion, LocalDateTime now);
+
+    // Мягкое удаление одним UPDATE: версия проверяется в WHERE (null — любая), 0 строк — машины нет,
+    // она удалена или версия устарела. @PreUpdate для bulk-запросов не вызывается, поэтому updatedAt передаётся явно
+
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, key = "#p0")
+    @Query(value = """
+            UPDATE cars SET deleted = TRUE, updated_at = :now, version = version + 1
+            WHERE id = :id AND deleted = FALSE AND (CAST(:expectedVersion AS BIGINT) IS NULL OR version = :expectedVersion)""",
+            nativeQuery = true)
+    int softDeleteById(@Param("id") Long id, @Param("expectedVersion") Long expectedVersion, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, allEntries = true)
+    @Query(value = "UPDATE cars SET deleted = TRUE, updated_at = :now, version = version + 1 WHERE deleted = FALSE",
+            nativeQuery = true)
+    int softDeleteAll(@Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, allEntries = true)
+    @Query(value = "UPDATE cars SET deleted = TRUE, updated_at = :now, version = version + 1 WHERE id IN (:ids) AND deleted = FALSE",
+            nativeQuery = true)
+    int softDeleteAllById(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Физически удаляет до :limit помеченных записей, удалённых раньше :deletedBefore; возвращает число удалённых
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM cars
+            WHERE id IN (SELECT id FROM cars WHERE deleted = TRUE AND updated_at < :deletedBefore LIMIT :limit)""",
+            nativeQuery = true)
+    int purgeDeleted(@Param("deletedBefore") LocalDateTime deletedBefore, @Param("limit") int limit);
+
+    // Все записи через репозиторий сбрасывают кэш findById. delete* только помечают запись тем же UPDATE,
+    // что и softDeleteById: updated_at везде ставят часы приложения, а не БД
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, key = "#result.id")
+    <S extends Car> S save(S entity);
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, key = "#result.id")
+    <S extends Car> S saveAndFlush(S entity);
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, allEntries = true)
+    <S extends Car> List<S> saveAll(Iterable<S> entities);
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, key = "#p0")
+    default void deleteById(Long id) {
+        softDeleteById(id, null, now());
+    }
+
+    // Запись есть, но версия другая — конфликт, как в CarWriteService
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, key = "#p0.id")
+    default void delete(Car entity) {
+        if (softDeleteById(entity.getId(), entity.getVersion(), now()) == 0 && existsById(entity.getId())) {
+            throw new ObjectOptimisticLockingFailureException(Car.class, entity.getId());
+        }
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, allEntries = true)
+    default void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, allEntries = true)
+    default void deleteAll(Iterable<? extends Car> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, allEntries = true)
+    default void deleteAll() {
+        softDeleteAll(now());
+    }
+
+    // *InBatch — тоже один UPDATE, без проверки версий, как и физический DELETE у JpaRepository
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, allEntries = true)
+    default void deleteAllInBatch() {
+        softDeleteAll(now());
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, allEntries = true)
+    default void deleteAllByIdInBatch(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        if (!idList.isEmpty()) {
+            softDeleteAllById(idList, now());
+        }
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CARS_CACHE, allEntries = true)
+    default void deleteAllInBatch(Iterable<Car> entities) {
+        List<Long> ids = new ArrayList<>();
+        entities.forEach(car -> ids.add(car.getId()));
+        deleteAllByIdInBatch(ids);
+    }
+
+    // Точность колонки timestamp, как у Car.onCreate
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
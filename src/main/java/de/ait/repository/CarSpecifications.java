@@ -0,0 +1,69 @@
+package de.ait.repository;
+
+import de.ait.dto.CarSearchCriteria;
+import de.ait.model.Car;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public final class CarSpecifications {
+
+    private CarSpecifications() {
+    }
+
+    /**
+     * Builds one WHERE clause out of every filled-in criterion, so a combined
+     * filter is answered by a single query instead of one per field.
+     */
+    public static Specification<Car> matching(CarSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (criteria.getBrand() != null && !criteria.getBrand().isBlank()) {
+                predicates.add(cb.equal(root.get("brand"), criteria.getBrand()));
+            }
+            if (criteria.getColor() != null && !criteria.getColor().isBlank()) {
+                // как и в findByColorIgnoreCase — через индексируемую колонку color_upper
+                predicates.add(cb.equal(root.get("colorUpper"), criteria.getColor().toUpperCase(Locale.ROOT)));
+            }
+            if (criteria.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), criteria.getMinPrice()));
+            }
+            if (criteria.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), criteria.getMaxPrice()));
+            }
+            if (criteria.getMinHp() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("horsepower"), criteria.getMinHp()));
+            }
+            if (criteria.getMaxHp() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("horsepower"), criteria.getMaxHp()));
+            }
+            if (criteria.getMinYear() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("productionYear"), criteria.getMinYear()));
+            }
+            if (criteria.getMaxYear() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("productionYear"), criteria.getMaxYear()));
+            }
+            if (criteria.getMinMileage() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("mileage"), criteria.getMinMileage()));
+            }
+            if (criteria.getMaxMileage() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("mileage"), criteria.getMaxMileage()));
+            }
+            if (criteria.getFuelType() != null) {
+                predicates.add(cb.equal(root.get("fuelType"), criteria.getFuelType()));
+            }
+            if (criteria.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), criteria.getStatus()));
+            }
+            if (criteria.getTransmission() != null) {
+                predicates.add(cb.equal(root.get("transmission"), criteria.getTransmission()));
+            }
+
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
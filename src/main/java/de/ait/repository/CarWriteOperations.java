@@ -0,0 +1,20 @@
+package de.ait.repository;
+
+import de.ait.model.Car;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Car writes that return the row as it was before the write, from the same SQL
+ * statement. The version is checked in the WHERE clause ({@code expectedVersion}
+ * null accepts any version) and goes up by 1. An empty result means no row was
+ * written: the car does not exist, is deleted, or has another version.
+ * Implemented by {@link CarWriteOperationsImpl}, exposed through {@link CarRepository}.
+ */
+public interface CarWriteOperations {
+
+    Optional<Car> updateReturningPrevious(Long id, Car car, Long expectedVersion, LocalDateTime now);
+
+    Optional<Car> softDeleteReturningPrevious(Long id, Long expectedVersion, LocalDateTime now);
+}
@@ -0,0 +1,86 @@
+package de.ait.repository;
+
+import de.ait.model.Car;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// H2 отдаёт строку до записи через OLD TABLE (UPDATE ...). В PostgreSQL RETURNING видит только новую строку,
+// поэтому старая берётся из подзапроса FOR UPDATE в FROM того же UPDATE
+class CarWriteOperationsImpl implements CarWriteOperations {
+
+    private static final String UPDATE_SET = """
+            brand = :brand, model = :model, production_year = :productionYear, mileage = :mileage, price = :price,
+            status = :status, color = :color, horsepower = :horsepower, fuel_type = :fuelType,
+            transmission = :transmission, updated_at = :now, version = c.version + 1""";
+
+    private static final String DELETE_SET = "deleted = TRUE, updated_at = :now, version = c.version + 1";
+
+    private static final String MATCH = """
+            c.id = :id AND c.deleted = FALSE AND (CAST(:expectedVersion AS BIGINT) IS NULL OR c.version = :expectedVersion)""";
+
+    private final EntityManager entityManager;
+    private Boolean postgres;
+
+    CarWriteOperationsImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<Car> updateReturningPrevious(Long id, Car car, Long expectedVersion, LocalDateTime now) {
+        Query query = entityManager.createNativeQuery(returningPrevious(UPDATE_SET), Car.class)
+                .setParameter("brand", car.getBrand())
+                .setParameter("model", car.getModel())
+                .setParameter("productionYear", car.getProductionYear())
+                .setParameter("mileage", car.getMileage())
+                .setParameter("price", car.getPrice())
+                .setParameter("status", car.getStatus().name())
+                .setParameter("color", car.getColor())
+                .setParameter("horsepower", car.getHorsepower())
+                .setParameter("fuelType", car.getFuelType().name())
+                .setParameter("transmission", car.getTransmission().name());
+        return execute(query, id, expectedVersion, now);
+    }
+
+    @Override
+    public Optional<Car> softDeleteReturningPrevious(Long id, Long expectedVersion, LocalDateTime now) {
+        return execute(entityManager.createNativeQuery(returningPrevious(DELETE_SET), Car.class), id, expectedVersion, now);
+    }
+
+    private Optional<Car> execute(Query query, Long id, Long expectedVersion, LocalDateTime now) {
+        @SuppressWarnings("unchecked")
+        List<Car> previous = query
+                .setParameter("id", id)
+                .setParameter("expectedVersion", expectedVersion)
+                .setParameter("now", now)
+                .getResultList();
+        if (previous.isEmpty()) {
+            return Optional.empty();
+        }
+        // Иначе Hibernate при flush сравнил бы старое состояние с уже записанной строкой
+        entityManager.detach(previous.getFirst());
+        return Optional.of(previous.getFirst());
+    }
+
+    private String returningPrevious(String set) {
+        if (isPostgres()) {
+            return "UPDATE cars c SET " + set
+                    + " FROM (SELECT * FROM cars WHERE id = :id FOR UPDATE) previous"
+                    + " WHERE c.id = previous.id AND " + MATCH + " RETURNING previous.*";
+        }
+        return "SELECT * FROM OLD TABLE (UPDATE cars c SET " + set + " WHERE " + MATCH + ")";
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        }
+        return postgres;
+    }
+}
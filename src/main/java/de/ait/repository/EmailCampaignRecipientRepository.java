@@ -0,0 +1,32 @@
+package de.ait.repository;
+
+import de.ait.enums.CampaignRecipientStatus;
+import de.ait.model.EmailCampaignRecipient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface EmailCampaignRecipientRepository extends JpaRepository<EmailCampaignRecipient, Long> {
+
+    List<EmailCampaignRecipient> findByCampaignIdOrderByPositionAsc(String campaignId);
+
+    // Записывает окончательный результат; уже записанный (повторная доставка батча) не перезаписывается
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update EmailCampaignRecipient r
+               set r.status = :status, r.lastError = :lastError, r.finishedAt = :now
+             where r.campaignId = :campaignId and r.position in :positions
+               and r.status = de.ait.enums.CampaignRecipientStatus.PENDING
+            """)
+    int finish(@Param("campaignId") String campaignId, @Param("positions") Collection<Integer> positions,
+               @Param("status") CampaignRecipientStatus status, @Param("lastError") String lastError,
+               @Param("now") LocalDateTime now);
+}
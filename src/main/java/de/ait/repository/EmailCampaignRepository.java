@@ -0,0 +1,33 @@
+package de.ait.repository;
+
+import de.ait.model.EmailCampaign;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface EmailCampaignRepository extends JpaRepository<EmailCampaign, String> {
+
+    // Время начала ставит только первый батч
+
+    @Transactional
+    @Modifying
+    @Query("update EmailCampaign c set c.startedAt = :now where c.id = :id and c.startedAt is null")
+    int markStarted(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    // Рассылка закончена, когда ни у одного получателя не осталось PENDING
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update EmailCampaign c
+               set c.finishedAt = :now
+             where c.id = :id and c.finishedAt is null
+               and not exists (select r.id from EmailCampaignRecipient r
+                                where r.campaignId = :id and r.status = de.ait.enums.CampaignRecipientStatus.PENDING)
+            """)
+    int markFinishedIfDone(@Param("id") String id, @Param("now") LocalDateTime now);
+}
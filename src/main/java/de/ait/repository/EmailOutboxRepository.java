@@ -0,0 +1,67 @@
+package de.ait.repository;
+
+import de.ait.enums.OutboxStatus;
+import de.ait.model.EmailOutboxMessage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    List<EmailOutboxMessage> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(OutboxStatus status, LocalDateTime now, Limit limit);
+
+    long countByStatus(OutboxStatus status);
+
+    // Атомарно забирает сообщение в работу: 1 — забрали мы, 0 — уже забрал кто-то другой
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update EmailOutboxMessage m
+               set m.status = de.ait.enums.OutboxStatus.SENDING, m.updatedAt = :now
+             where m.id = :id and m.status = de.ait.enums.OutboxStatus.PENDING
+            """)
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Возвращает сообщение в очередь, если отдать его воркеру не удалось
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update EmailOutboxMessage m
+               set m.status = de.ait.enums.OutboxStatus.PENDING, m.updatedAt = :now
+             where m.id = :id and m.status = de.ait.enums.OutboxStatus.SENDING and m.updatedAt = :claimedAt
+            """)
+    int unclaim(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt, @Param("now") LocalDateTime now);
+
+    // Записывает результат попытки отправки; 0 — claim уже потерян, результат отброшен
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update EmailOutboxMessage m
+               set m.status = :status, m.attempts = :attempts, m.lastError = :lastError,
+                   m.nextAttemptAt = :nextAttemptAt, m.updatedAt = :now
+             where m.id = :id and m.status = de.ait.enums.OutboxStatus.SENDING and m.updatedAt = :claimedAt
+            """)
+    int finish(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt, @Param("status") OutboxStatus status,
+               @Param("attempts") int attempts, @Param("lastError") String lastError,
+               @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("now") LocalDateTime now);
+
+    // Возвращает в очередь сообщения, которые зависли в SENDING (например, после рестарта)
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update EmailOutboxMessage m
+               set m.status = de.ait.enums.OutboxStatus.PENDING, m.updatedAt = :now
+             where m.status = de.ait.enums.OutboxStatus.SENDING and m.updatedAt < :stuckBefore
+            """)
+    int releaseStuck(@Param("stuckBefore") LocalDateTime stuckBefore, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,93 @@
+package de.ait.service;
+
+import de.ait.config.CacheConfig;
+import de.ait.dto.CarBatchItem;
+import de.ait.model.Car;
+import de.ait.repository.CarRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class CarBatchLookupService {
+
+    private final CarRepository carRepository;
+    private final Cache carsCache;
+    private final TransactionTemplate primaryRead;
+
+    public CarBatchLookupService(CarRepository carRepository, CacheManager cacheManager,
+                                 PlatformTransactionManager transactionManager) {
+        this.carRepository = carRepository;
+        this.carsCache = cacheManager.getCache(CacheConfig.CARS_CACHE);
+        // Не read-only: найденные машины кладутся в кэш findById, а его наполняет только primary
+        this.primaryRead = new TransactionTemplate(transactionManager);
+    }
+
+    @Value("${app.cars.batch.chunk-size:200}")
+    private int chunkSize;
+
+    /**
+     * Returns one item per requested id, in request order.
+     */
+    public List<CarBatchItem<Car>> findInRequestOrder(List<Long> ids) {
+        Map<Long, Car> carsById = load(ids);
+
+        List<CarBatchItem<Car>> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Car car = carsById.get(id);
+            items.add(new CarBatchItem<>(id, car != null, car));
+        }
+        return items;
+    }
+
+    /**
+     * Returns the cars that exist, in the order of {@code ids}.
+     */
+    public List<Car> findAllInOrder(List<Long> ids) {
+        Map<Long, Car> carsById = load(ids);
+
+        List<Car> cars = new ArrayList<>(carsById.size());
+        for (Long id : ids) {
+            Car car = carsById.get(id);
+            if (car != null) {
+                cars.add(car);
+            }
+        }
+        return cars;
+    }
+
+    // Сначала кэш findById, остальное — одним WHERE id IN (...) на пачку из chunk-size различных id
+    private Map<Long, Car> load(List<Long> ids) {
+        Map<Long, Car> carsById = new HashMap<>(ids.size() * 2);
+        List<Long> missing = new ArrayList<>();
+
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Car cached = carsCache == null ? null : carsCache.get(id, Car.class);
+            if (cached != null) {
+                carsById.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        for (int from = 0; from < missing.size(); from += chunkSize) {
+            List<Long> chunk = missing.subList(from, Math.min(from + chunkSize, missing.size()));
+            for (Car car : primaryRead.execute(status -> carRepository.findAllById(chunk))) {
+                carsById.put(car.getId(), car);
+                if (carsCache != null) {
+                    carsCache.put(car.getId(), car);
+                }
+            }
+        }
+        return carsById;
+    }
+}
@@ -0,0 +1,369 @@
+package de.ait.service;
+
+import de.ait.dto.CarSearchCriteria;
+import de.ait.enums.CarChangeType;
+import de.ait.enums.CarStatus;
+import de.ait.enums.FuelType;
+import de.ait.enums.Transmission;
+import de.ait.event.CarChangedEvent;
+import de.ait.model.Car;
+import de.ait.repository.CarRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented snapshot of the numeric and enum fields of every live car, used
+ * to answer range and enum filters without a database round trip. Each field is a
+ * primitive array indexed by row. Numeric columns also keep the rows sorted by
+ * value, so a range becomes two binary searches. Enum columns keep one BitSet per
+ * constant. A filter is the intersection of these BitSets. The store returns car
+ * ids only; {@link CarRangeQueryService} turns them into cars. It is built at
+ * startup, updated from {@link CarChangedEvent}s, and rebuilt every
+ * {@code rebuild-interval} to drop deleted rows and pick up writes made outside
+ * the API.
+ */
+@Service
+@ConditionalOnProperty(name = "app.cars.column-store.enabled", havingValue = "true")
+@Slf4j
+public class CarColumnStore {
+
+    private final CarRepository carRepository;
+    private final TransactionTemplate primaryRead;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private Columns columns = new Columns(16);
+    // Не null, пока идёт перестроение: события за это время проигрываются на новой копии
+    private List<CarChangedEvent> pendingEvents;
+
+    public CarColumnStore(CarRepository carRepository, PlatformTransactionManager transactionManager) {
+        this.carRepository = carRepository;
+        // Read-write транзакция идёт на primary: снимок с отстающей реплики откатил бы события, пришедшие во время перестроения
+        this.primaryRead = new TransactionTemplate(transactionManager);
+    }
+
+    @Value("${app.cars.column-store.rebuild-chunk-size:1000}")
+    private int chunkSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.cars.column-store.rebuild-interval:1h}",
+            initialDelayString = "${app.cars.column-store.rebuild-interval:1h}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long startedAt = System.nanoTime();
+            withWriteLock(() -> pendingEvents = new ArrayList<>());
+
+            Columns rebuilt = new Columns(Math.max(16, columns.liveCount()));
+            long lastId = 0;
+            List<Car> chunk;
+            do {
+                long after = lastId;
+                chunk = primaryRead.execute(status -> carRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(chunkSize)));
+                for (Car car : chunk) {
+                    rebuilt.load(car);
+                    lastId = car.getId();
+                }
+            } while (chunk.size() == chunkSize);
+            // Копия ещё ничья, поэтому полная сортировка идёт без блокировки
+            rebuilt.sortIndexes();
+
+            withWriteLock(() -> {
+                pendingEvents.forEach(rebuilt::apply);
+                pendingEvents = null;
+                columns = rebuilt;
+            });
+            log.info("Built car column store: {} cars in {} ms", rebuilt.liveCount(), (System.nanoTime() - startedAt) / 1_000_000);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onCarChanged(CarChangedEvent event) {
+        withWriteLock(() -> {
+            columns.apply(event);
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+        });
+    }
+
+    /**
+     * Ids, ascending, of the live cars matching every numeric range and enum value
+     * of the criteria. Brand and color are not stored here; the caller must check
+     * {@link #supports(CarSearchCriteria)} first.
+     */
+    public List<Long> findIds(CarSearchCriteria criteria) {
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            BitSet rows = (BitSet) current.live.clone();
+            current.price.restrict(rows, criteria.getMinPrice(), criteria.getMaxPrice());
+            current.horsepower.restrict(rows, criteria.getMinHp(), criteria.getMaxHp());
+            current.mileage.restrict(rows, criteria.getMinMileage(), criteria.getMaxMileage());
+            current.productionYear.restrict(rows, criteria.getMinYear(), criteria.getMaxYear());
+            current.status.restrict(rows, criteria.getStatus());
+            current.fuelType.restrict(rows, criteria.getFuelType());
+            current.transmission.restrict(rows, criteria.getTransmission());
+
+            long[] ids = new long[rows.cardinality()];
+            int next = 0;
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                ids[next++] = current.ids[row];
+            }
+            Arrays.sort(ids);
+            return Arrays.stream(ids).boxed().toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static boolean supports(CarSearchCriteria criteria) {
+        return (criteria.getBrand() == null || criteria.getBrand().isBlank())
+                && (criteria.getColor() == null || criteria.getColor().isBlank());
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static class Columns {
+
+        private long[] ids;
+        private final Map<Long, Integer> rowsById = new HashMap<>();
+        // Удалённые машины остаются строками до следующего перестроения, но выпадают из live
+        private final BitSet live = new BitSet();
+        private int size;
+
+        private final IntColumn price;
+        private final IntColumn horsepower;
+        private final IntColumn mileage;
+        private final IntColumn productionYear;
+        private final EnumColumn<CarStatus> status = new EnumColumn<>(CarStatus.values());
+        private final EnumColumn<FuelType> fuelType = new EnumColumn<>(FuelType.values());
+        private final EnumColumn<Transmission> transmission = new EnumColumn<>(Transmission.values());
+
+        private Columns(int capacity) {
+            ids = new long[capacity];
+            price = new IntColumn(capacity);
+            horsepower = new IntColumn(capacity);
+            mileage = new IntColumn(capacity);
+            productionYear = new IntColumn(capacity);
+        }
+
+        private int liveCount() {
+            return live.cardinality();
+        }
+
+        private void apply(CarChangedEvent event) {
+            if (event.getType() == CarChangeType.DELETED) {
+                Integer row = rowsById.get(event.getId());
+                if (row != null) {
+                    live.clear(row);
+                }
+            } else {
+                put(event.getCar());
+            }
+        }
+
+        // Запись из события: сортированные индексы сдвигаются на месте
+        private void put(Car car) {
+            Integer row = rowsById.get(car.getId());
+            boolean added = row == null;
+            if (added) {
+                row = addRow(car.getId());
+            }
+
+            price.set(row, car.getPrice(), added);
+            horsepower.set(row, car.getHorsepower(), added);
+            mileage.set(row, car.getMileage(), added);
+            productionYear.set(row, car.getProductionYear(), added);
+            setEnums(row, car);
+        }
+
+        // Загрузка при перестроении: только значения, индексы строит sortIndexes() в конце
+        private void load(Car car) {
+            int row = addRow(car.getId());
+            price.load(row, car.getPrice());
+            horsepower.load(row, car.getHorsepower());
+            mileage.load(row, car.getMileage());
+            productionYear.load(row, car.getProductionYear());
+            setEnums(row, car);
+        }
+
+        private int addRow(long id) {
+            int row = size++;
+            if (row == ids.length) {
+                ids = Arrays.copyOf(ids, row * 2);
+            }
+            ids[row] = id;
+            rowsById.put(id, row);
+            return row;
+        }
+
+        private void setEnums(int row, Car car) {
+            status.set(row, car.getStatus());
+            fuelType.set(row, car.getFuelType());
+            transmission.set(row, car.getTransmission());
+            live.set(row);
+        }
+
+        private void sortIndexes() {
+            price.sort(size);
+            horsepower.sort(size);
+            mileage.sort(size);
+            productionYear.sort(size);
+        }
+    }
+
+    private static class IntColumn {
+
+        private int[] values;
+        // Номера строк, упорядоченные по (значение, строка); занято sortedSize первых элементов
+        private int[] sortedRows = new int[16];
+        private int sortedSize;
+
+        private IntColumn(int capacity) {
+            values = new int[capacity];
+        }
+
+        private void load(int row, int value) {
+            ensureCapacity(row);
+            values[row] = value;
+        }
+
+        // Старая позиция строки и новая находятся бинарным поиском, сдвигаются только элементы между ними
+        private void set(int row, int value, boolean added) {
+            ensureCapacity(row);
+            if (added) {
+                values[row] = value;
+                int to = lowerBound(key(value, row));
+                if (sortedSize == sortedRows.length) {
+                    sortedRows = Arrays.copyOf(sortedRows, sortedSize * 2);
+                }
+                System.arraycopy(sortedRows, to, sortedRows, to + 1, sortedSize - to);
+                sortedRows[to] = row;
+                sortedSize++;
+                return;
+            }
+            if (values[row] == value) {
+                return;
+            }
+
+            // Поиск идёт по старому значению строки, пока оно ещё на месте
+            long newKey = key(value, row);
+            int from = lowerBound(key(values[row], row));
+            int to = lowerBound(newKey);
+            if (to > from) {
+                System.arraycopy(sortedRows, from + 1, sortedRows, from, to - 1 - from);
+                sortedRows[to - 1] = row;
+            } else {
+                System.arraycopy(sortedRows, to, sortedRows, to + 1, from - to);
+                sortedRows[to] = row;
+            }
+            values[row] = value;
+        }
+
+        private void ensureCapacity(int row) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, Math.max(row + 1, values.length * 2));
+            }
+        }
+
+        private void sort(int size) {
+            // Упаковка (значение, строка) в long: сортировка примитивов без компаратора
+            long[] packed = new long[size];
+            for (int row = 0; row < size; row++) {
+                packed[row] = key(values[row], row);
+            }
+            Arrays.sort(packed);
+            sortedRows = new int[Math.max(16, size)];
+            for (int i = 0; i < size; i++) {
+                sortedRows[i] = (int) packed[i];
+            }
+            sortedSize = size;
+        }
+
+        // Оставляет в rows только строки со значением в [min, max]; null — граница не задана
+        private void restrict(BitSet rows, Integer min, Integer max) {
+            if (min == null && max == null) {
+                return;
+            }
+            int from = min == null ? 0 : lowerBound((long) min << 32);
+            int to = max == null || max == Integer.MAX_VALUE ? sortedSize : lowerBound(((long) max + 1) << 32);
+
+            BitSet inRange = new BitSet(values.length);
+            for (int i = from; i < to; i++) {
+                inRange.set(sortedRows[i]);
+            }
+            rows.and(inRange);
+        }
+
+        // Число элементов индекса с ключом меньше key
+        private int lowerBound(long key) {
+            int low = 0;
+            int high = sortedSize;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (key(values[sortedRows[middle]], sortedRows[middle]) < key) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static long key(int value, int row) {
+            return ((long) value << 32) | row;
+        }
+    }
+
+    private static class EnumColumn<E extends Enum<E>> {
+
+        private final BitSet[] rowsByValue;
+
+        private EnumColumn(E[] constants) {
+            rowsByValue = new BitSet[constants.length];
+            for (int i = 0; i < constants.length; i++) {
+                rowsByValue[i] = new BitSet();
+            }
+        }
+
+        private void set(int row, E value) {
+            for (BitSet rows : rowsByValue) {
+                rows.clear(row);
+            }
+            rowsByValue[value.ordinal()].set(row);
+        }
+
+        private void restrict(BitSet rows, E value) {
+            if (value != null) {
+                rows.and(rowsByValue[value.ordinal()]);
+            }
+        }
+    }
+}
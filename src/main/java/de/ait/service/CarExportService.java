@@ -0,0 +1,185 @@
+package de.ait.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.ait.enums.CarExportFormat;
+import de.ait.enums.CarStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams the inventory straight from a forward-only JDBC cursor to the
+ * response. Rows are written as they are read and are never turned into
+ * entities, so memory stays flat no matter how many cars there are.
+ */
+@Service
+@Slf4j
+public class CarExportService {
+
+    // Имена колонок совпадают с JSON-полями Car, поэтому CSV можно снова загрузить через /api/cars/import
+    private static final String[] HEADER = {
+            "id", "brand", "model", "productionYear", "mileage", "price", "status",
+            "color", "horsepower", "fuelType", "transmission", "createdAt", "updatedAt"};
+
+    private static final String SELECT = """
+            SELECT id, brand, model, production_year, mileage, price, status,
+                   color, horsepower, fuel_type, transmission, created_at, updated_at
+              FROM cars
+             WHERE deleted = FALSE""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public CarExportService(DataSource dataSource, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                            @Value("${app.cars.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Курсор с fetch size в PostgreSQL работает только внутри транзакции
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(OutputStream outputStream, CarExportFormat format, CarStatus status, LocalDateTime updatedSince)
+            throws IOException {
+
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>(2);
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status.name());
+        }
+        if (updatedSince != null) {
+            sql.append(" AND updated_at >= ?");
+            args.add(Timestamp.valueOf(updatedSince));
+        }
+        sql.append(" ORDER BY id");
+
+        RowWriter rowWriter = format == CarExportFormat.CSV
+                ? new CsvRowWriter(outputStream)
+                : new NdjsonRowWriter(objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8));
+
+        long[] exported = {0};
+        try (rowWriter) {
+            transactionTemplate.executeWithoutResult(tx ->
+                    jdbcTemplate.query(sql.toString(), resultSet -> {
+                        try {
+                            rowWriter.write(resultSet);
+                            exported[0]++;
+                        } catch (IOException exception) {
+                            throw new UncheckedIOException(exception);
+                        }
+                    }, args.toArray()));
+        } catch (UncheckedIOException exception) {
+            // Клиент закрыл соединение посреди выгрузки
+            throw exception.getCause();
+        }
+
+        log.info("Exported {} cars as {}", exported[0], format);
+    }
+
+    private interface RowWriter extends AutoCloseable {
+        void write(ResultSet row) throws SQLException, IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(JsonGenerator generator) {
+            this.generator = generator;
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet row) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", row.getLong(1));
+            generator.writeStringField("brand", row.getString(2));
+            generator.writeStringField("model", row.getString(3));
+            generator.writeNumberField("productionYear", row.getInt(4));
+            generator.writeNumberField("mileage", row.getLong(5));
+            generator.writeNumberField("price", row.getInt(6));
+            generator.writeStringField("status", row.getString(7));
+            generator.writeStringField("color", row.getString(8));
+            generator.writeNumberField("horsepower", row.getInt(9));
+            generator.writeStringField("fuelType", row.getString(10));
+            generator.writeStringField("transmission", row.getString(11));
+            generator.writeStringField("createdAt", timestamp(row, 12));
+            generator.writeStringField("updatedAt", timestamp(row, 13));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(OutputStream outputStream) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.write(String.join(",", HEADER));
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet row) throws SQLException, IOException {
+            for (int column = 1; column <= HEADER.length; column++) {
+                if (column > 1) {
+                    writer.write(',');
+                }
+                String value = column >= 12 ? timestamp(row, column) : row.getString(column);
+                if (value != null) {
+                    writer.write(escape(value));
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static String timestamp(ResultSet row, int column) throws SQLException {
+        Timestamp timestamp = row.getTimestamp(column);
+        return timestamp == null ? null : timestamp.toLocalDateTime().toString();
+    }
+}
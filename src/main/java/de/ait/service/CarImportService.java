@@ -0,0 +1,196 @@
+package de.ait.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import de.ait.dto.CarImportReport;
+import de.ait.dto.CarImportReport.RowError;
+import de.ait.enums.CarChangeType;
+import de.ait.enums.CarImportFormat;
+import de.ait.event.CarChangedEvent;
+import de.ait.model.Car;
+import de.ait.validation.CarValidationError;
+import de.ait.validation.CarValidator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams cars from a JSON array, NDJSON or CSV body and stores them in JDBC
+ * batches. Only one batch is held in memory at a time. A bad row is reported
+ * and skipped, and the rest of the file is still imported.
+ */
+@Service
+@Slf4j
+public class CarImportService {
+
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+    private final CarValidator carValidator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CarImportService(ObjectMapper objectMapper, CarValidator carValidator,
+                            PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher) {
+        this.jsonReader = objectMapper.readerFor(Car.class);
+        this.csvReader = new CsvMapper()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readerFor(Car.class)
+                .with(CsvSchema.emptySchema().withHeader());
+        this.carValidator = carValidator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Value("${app.cars.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.cars.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public CarImportReport importCars(InputStream inputStream, CarImportFormat format) throws IOException {
+        long startedAt = System.nanoTime();
+        ImportState state = new ImportState();
+
+        // readValues сам разворачивает корневой JSON-массив, так что JSON и NDJSON читаются одинаково
+        ObjectReader reader = format == CarImportFormat.CSV ? csvReader : jsonReader;
+
+        try (MappingIterator<Car> rows = reader.readValues(inputStream)) {
+            List<Car> batch = new ArrayList<>(batchSize);
+            List<Long> batchRows = new ArrayList<>(batchSize);
+
+            while (true) {
+                Car car;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    state.total++;
+                    car = rows.nextValue();
+                } catch (JsonParseException exception) {
+                    // Синтаксис сломан — дальше файл не прочитать
+                    state.fail(state.total, List.of("Malformed input: " + exception.getOriginalMessage()));
+                    break;
+                } catch (IOException exception) {
+                    state.fail(state.total, List.of("Invalid row: " + exception.getMessage()));
+                    continue;
+                }
+
+                int errors = carValidator.validate(car);
+                if (errors != 0) {
+                    state.fail(state.total, errors);
+                    continue;
+                }
+
+                car.setId(null);
+                batch.add(car);
+                batchRows.add(state.total);
+
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, batchRows, state);
+                }
+            }
+
+            writeBatch(batch, batchRows, state);
+        }
+
+        long durationMs = (System.nanoTime() - startedAt) / 1_000_000;
+        log.info("Car import ({}): {} rows, {} imported, {} failed in {} ms",
+                format, state.total, state.imported, state.failed, durationMs);
+
+        return new CarImportReport(state.total, state.imported, state.failed, durationMs, state.errors);
+    }
+
+    private void writeBatch(List<Car> batch, List<Long> batchRows, ImportState state) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(batch));
+            state.imported += batch.size();
+            batch.forEach(this::publishCreated);
+        } catch (RuntimeException batchException) {
+            // Пачка откатилась целиком — повторяем по одной записи, чтобы найти виноватые строки
+            log.warn("Car import batch of {} rows failed, retrying row by row", batch.size(), batchException);
+            entityManager.clear();
+            for (int i = 0; i < batch.size(); i++) {
+                Car car = batch.get(i);
+                car.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(car)));
+                    state.imported++;
+                    publishCreated(car);
+                } catch (RuntimeException rowException) {
+                    entityManager.clear();
+                    state.fail(batchRows.get(i), List.of(rootMessage(rowException)));
+                }
+            }
+        }
+
+        batch.clear();
+        batchRows.clear();
+    }
+
+    private void persist(List<Car> cars) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        for (Car car : cars) {
+            entityManager.persist(car);
+        }
+        entityManager.flush();
+        // Отвязываем сохранённые машины, чтобы память не росла вместе с файлом
+        entityManager.clear();
+    }
+
+    private void publishCreated(Car car) {
+        eventPublisher.publishEvent(new CarChangedEvent(CarChangeType.CREATED, car.getId(), car, null));
+    }
+
+    private static String rootMessage(Throwable throwable) {
+        Throwable root = throwable;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private class ImportState {
+        private long total;
+        private long imported;
+        private long failed;
+        private final List<RowError> errors = new ArrayList<>();
+
+        // Тексты ошибок собираются только для строк, которые попадут в отчёт
+        private void fail(long row, int validationErrors) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(row, CarValidationError.messages(validationErrors)));
+            }
+        }
+
+        private void fail(long row, List<String> rowErrors) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(row, rowErrors));
+            }
+        }
+    }
+}
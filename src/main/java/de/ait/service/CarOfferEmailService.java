@@ -1,35 +1,49 @@
 package de.ait.service;
 
 
+import de.ait.dto.CampaignRecipient;
+import de.ait.dto.CarOfferCampaignBatch;
 import de.ait.dto.CarOfferEmailRequest;
 import de.ait.model.Car;
 import de.ait.repository.CarRepository;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
 public class CarOfferEmailService {
 
+    private static final String SUBJECT = "Car offer";
+
     private final JavaMailSender javaMailSender;
 
-    private final TemplateEngine templateEngine;
+    private final EmailTemplateRenderer emailTemplateRenderer;
 
     private final CarRepository carRepository;
 
-    public CarOfferEmailService(JavaMailSender javaMailSender, TemplateEngine templateEngine, CarRepository carRepository) {
+    private final ObservationRegistry observationRegistry;
+
+    public CarOfferEmailService(JavaMailSender javaMailSender, EmailTemplateRenderer emailTemplateRenderer,
+                                CarRepository carRepository, ObservationRegistry observationRegistry) {
         this.javaMailSender = javaMailSender;
-        this.templateEngine = templateEngine;
+        this.emailTemplateRenderer = emailTemplateRenderer;
         this.carRepository = carRepository;
+        this.observationRegistry = observationRegistry;
     }
 
     @Value("${app.mail.from}")
@@ -39,41 +53,20 @@ public class CarOfferEmailService {
     private String baseUrl;
 
     public void sendCarOfferEmail(CarOfferEmailRequest carOfferEmailRequest) {
-        Car car = carRepository.findById(carOfferEmailRequest.getCarId())
-                .orElseThrow(() -> new IllegalArgumentException("Car with id " + carOfferEmailRequest.getCarId() + " not found"));
+        Car car = findCar(carOfferEmailRequest.getCarId());
 
-        String confirmUrl = baseUrl + "/confirm-offer?carId=" + carOfferEmailRequest.getCarId();
-
-        Context context =  new Context();
+        Context context = new Context();
+        context.setVariables(carVariables(car, carOfferEmailRequest.getOfferPrice()));
         context.setVariable("clientName", carOfferEmailRequest.getClientName());
-        context.setVariable("carBrand", car.getBrand());
-        context.setVariable("carModel", car.getModel());
-        context.setVariable("productionYear", car.getProductionYear());
-        context.setVariable("mileage", car.getMileage());
-        context.setVariable("color", car.getColor());
-        context.setVariable("transmission", car.getTransmission());
-        context.setVariable("fuelType", car.getFuelType());
-        context.setVariable("offerPrice", carOfferEmailRequest.getOfferPrice());
-        context.setVariable("confirmUrl", confirmUrl);
-
-        String html = templateEngine.process("car-offer-mail", context);
 
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        String html = emailTemplateRenderer.render(EmailTemplateRenderer.CAR_OFFER, context);
 
         try {
-            MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage,
-                    MimeMessageHelper.MULTIPART_MODE_RELATED,
-                    StandardCharsets.UTF_8.name()
-            );
-
-            mimeMessageHelper.setFrom(from);
-            mimeMessageHelper.setTo(carOfferEmailRequest.getEmail());
-            mimeMessageHelper.setSubject("Car offer");
-            mimeMessageHelper.setText(html, true);
+            MimeMessage mimeMessage = createMessage(carOfferEmailRequest.getEmail(), html);
 
             log.info("Sending email to {}", carOfferEmailRequest.getEmail());
 
-            javaMailSender.send(mimeMessage);
+            smtpSend("single").observe(() -> javaMailSender.send(mimeMessage));
 
             log.info("Email sent to {}", carOfferEmailRequest.getEmail());
         }
@@ -87,4 +80,97 @@ public class CarOfferEmailService {
         }
 
     }
+
+    /**
+     * Sends one batch of a campaign queued by {@link EmailOutboxService#enqueueCampaign}.
+     * The car is loaded once, and its variables are shared by every per-recipient render.
+     * The whole batch goes over one SMTP connection. Returns the indexes, within the batch,
+     * of the recipients whose message was rejected on its own. When every message of the
+     * batch fails (no connection, for example), the exception is rethrown and the outbox
+     * retries the whole batch.
+     */
+    public List<Integer> sendCampaignBatch(CarOfferCampaignBatch batch) {
+        Context context = new Context();
+        context.setVariables(carVariables(findCar(batch.getCarId()), batch.getOfferPrice()));
+
+        List<CampaignRecipient> recipients = batch.getRecipients();
+        List<MimeMessage> messages = new ArrayList<>(recipients.size());
+        List<Integer> messageIndexes = new ArrayList<>(recipients.size());
+        List<Integer> failed = new ArrayList<>();
+
+        for (int i = 0; i < recipients.size(); i++) {
+            context.setVariable("clientName", recipients.get(i).getClientName());
+            try {
+                messages.add(createMessage(recipients.get(i).getEmail(), emailTemplateRenderer.render(EmailTemplateRenderer.CAR_OFFER, context)));
+                messageIndexes.add(i);
+            } catch (MessagingException exception) {
+                log.warn("Car offer campaign email to {} can not be built", recipients.get(i).getEmail(), exception);
+                failed.add(i);
+            }
+        }
+
+        if (messages.isEmpty()) {
+            return failed;
+        }
+
+        try {
+            // JavaMailSender отправляет весь массив через одно SMTP-соединение
+            smtpSend("batch").observe(() -> javaMailSender.send(messages.toArray(MimeMessage[]::new)));
+        } catch (MailSendException exception) {
+            Map<Object, Exception> failedMessages = exception.getFailedMessages();
+            if (failedMessages.isEmpty() || failedMessages.size() == messages.size()) {
+                throw exception;
+            }
+            log.warn("Car offer campaign batch: {} of {} emails failed", failedMessages.size(), messages.size(), exception);
+            for (int i = 0; i < messages.size(); i++) {
+                if (failedMessages.containsKey(messages.get(i))) {
+                    failed.add(messageIndexes.get(i));
+                }
+            }
+        }
+
+        return failed;
+    }
+
+    // Время SMTP-отправки без рендеринга: email.send{template, mode}
+    private Observation smtpSend(String mode) {
+        return Observation.createNotStarted("email.send", observationRegistry)
+                .lowCardinalityKeyValue("template", EmailTemplateRenderer.CAR_OFFER)
+                .lowCardinalityKeyValue("mode", mode);
+    }
+
+    private Car findCar(Long carId) {
+        return carRepository.findById(carId)
+                .orElseThrow(() -> new IllegalArgumentException("Car with id " + carId + " not found"));
+    }
+
+    private Map<String, Object> carVariables(Car car, Integer offerPrice) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("carBrand", car.getBrand());
+        variables.put("carModel", car.getModel());
+        variables.put("productionYear", car.getProductionYear());
+        variables.put("mileage", car.getMileage());
+        variables.put("color", car.getColor());
+        variables.put("transmission", car.getTransmission());
+        variables.put("fuelType", car.getFuelType());
+        variables.put("offerPrice", offerPrice);
+        variables.put("confirmUrl", baseUrl + "/confirm-offer?carId=" + car.getId());
+        return variables;
+    }
+
+    private MimeMessage createMessage(String to, String html) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+
+        MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage,
+                MimeMessageHelper.MULTIPART_MODE_RELATED,
+                StandardCharsets.UTF_8.name()
+        );
+
+        mimeMessageHelper.setFrom(from);
+        mimeMessageHelper.setTo(to);
+        mimeMessageHelper.setSubject(SUBJECT);
+        mimeMessageHelper.setText(html, true);
+
+        return mimeMessage;
+    }
 }
@@ -0,0 +1,90 @@
+package de.ait.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for hot read queries: while a query with a given key is running, other
+ * callers with the same key wait for it and get the same result instead of running it
+ * again. Nothing is kept after the query finishes, so a later caller always sees fresh
+ * data; caching stays in {@link org.springframework.cache.Cache}.
+ * <p>
+ * The result object is shared between callers and must not be modified.
+ * {@code cars.coalescing.requests} counts calls by outcome ({@code executed} or
+ * {@code joined}); app.cars.coalescing.enabled=false runs every query directly.
+ */
+@Service
+public class CarQueryCoalescer {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter joined;
+
+    public CarQueryCoalescer(MeterRegistry meterRegistry) {
+        this.executed = counter(meterRegistry, "executed");
+        this.joined = counter(meterRegistry, "joined");
+        Gauge.builder("cars.coalescing.in-flight", inFlight, ConcurrentHashMap::size)
+                .description("Distinct queries currently running through the coalescer")
+                .register(meterRegistry);
+    }
+
+    @Value("${app.cars.coalescing.enabled:true}")
+    private boolean enabled;
+
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(String key, Supplier<T> query) {
+        if (!enabled) {
+            return query.get();
+        }
+
+        CompletableFuture<Object> ownFuture = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, ownFuture);
+        if (running != null) {
+            joined.increment();
+            return (T) await(running);
+        }
+
+        executed.increment();
+        try {
+            T result = query.get();
+            ownFuture.complete(result);
+            return result;
+        } catch (RuntimeException | Error exception) {
+            ownFuture.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            // Снимаем ключ после завершения: следующий вызов выполнит запрос заново
+            inFlight.remove(key, ownFuture);
+        }
+    }
+
+    // Ожидающие получают то же исключение, что и выполнявший запрос
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (exception.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("cars.coalescing.requests")
+                .description("Coalesced read queries by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,60 @@
+package de.ait.service;
+
+import de.ait.dto.CarSearchCriteria;
+import de.ait.enums.FuelType;
+import de.ait.model.Car;
+import de.ait.repository.CarRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Range and enum lookups for the search endpoints. With
+ * app.cars.column-store.enabled=true the matching ids come from
+ * {@link CarColumnStore} and the cars from the cache or one IN query;
+ * otherwise the repository finders are used as before.
+ */
+@Service
+public class CarRangeQueryService {
+
+    private final CarRepository carRepository;
+    private final ObjectProvider<CarColumnStore> carColumnStore;
+    private final CarBatchLookupService carBatchLookupService;
+
+    public CarRangeQueryService(CarRepository carRepository, ObjectProvider<CarColumnStore> carColumnStore,
+                                CarBatchLookupService carBatchLookupService) {
+        this.carRepository = carRepository;
+        this.carColumnStore = carColumnStore;
+        this.carBatchLookupService = carBatchLookupService;
+    }
+
+    public List<Car> findByPriceBetween(int min, int max) {
+        CarSearchCriteria criteria = new CarSearchCriteria();
+        criteria.setMinPrice(min);
+        criteria.setMaxPrice(max);
+        return find(criteria, () -> carRepository.findByPriceBetween(min, max));
+    }
+
+    public List<Car> findByHorsepowerBetween(int minHp, int maxHp) {
+        CarSearchCriteria criteria = new CarSearchCriteria();
+        criteria.setMinHp(minHp);
+        criteria.setMaxHp(maxHp);
+        return find(criteria, () -> carRepository.findByHorsepowerBetween(minHp, maxHp));
+    }
+
+    public List<Car> findByFuelType(FuelType fuelType) {
+        CarSearchCriteria criteria = new CarSearchCriteria();
+        criteria.setFuelType(fuelType);
+        return find(criteria, () -> carRepository.findByFuelType(fuelType));
+    }
+
+    private List<Car> find(CarSearchCriteria criteria, Supplier<List<Car>> repositoryQuery) {
+        CarColumnStore store = carColumnStore.getIfAvailable();
+        if (store == null || !CarColumnStore.supports(criteria)) {
+            return repositoryQuery.get();
+        }
+        return carBatchLookupService.findAllInOrder(store.findIds(criteria));
+    }
+}
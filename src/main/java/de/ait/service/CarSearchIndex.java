@@ -0,0 +1,297 @@
+package de.ait.service;
+
+import de.ait.dto.CarSearchHit;
+import de.ait.enums.CarChangeType;
+import de.ait.event.CarChangedEvent;
+import de.ait.model.Car;
+import de.ait.repository.CarRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process full-text index over brand, model and color. Every word is a token
+ * in a sorted dictionary (prefix lookups for autocomplete) and is also split into
+ * trigrams, so a misspelt word still finds tokens that share most of its trigrams.
+ * The index is built from {@link CarRepository} at startup and then kept up to
+ * date from {@link CarChangedEvent}s; searches never touch the database.
+ */
+@Service
+@Slf4j
+public class CarSearchIndex {
+
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float MODEL_WEIGHT = 2.0f;
+    private static final float COLOR_WEIGHT = 1.0f;
+
+    private final CarRepository carRepository;
+    private final TransactionTemplate primaryRead;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private Index index = new Index();
+    // Не null, пока идёт перестроение: события, пришедшие за это время, проигрываются на новом индексе
+    private List<CarChangedEvent> pendingEvents;
+
+    public CarSearchIndex(CarRepository carRepository, PlatformTransactionManager transactionManager) {
+        this.carRepository = carRepository;
+        // Не read-only: с репликой перестроение читает primary, иначе отставшая реплика
+        // затёрла бы изменения, уже применённые из событий
+        this.primaryRead = new TransactionTemplate(transactionManager);
+    }
+
+    @Value("${app.cars.search.min-similarity:0.35}")
+    private double minSimilarity;
+
+    @Value("${app.cars.search.rebuild-chunk-size:1000}")
+    private int chunkSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long startedAt = System.nanoTime();
+            withWriteLock(() -> pendingEvents = new ArrayList<>());
+
+            Index rebuilt = new Index();
+            long lastId = 0;
+            List<Car> chunk;
+            do {
+                long after = lastId;
+                chunk = primaryRead.execute(status -> carRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(chunkSize)));
+                for (Car car : chunk) {
+                    rebuilt.put(car);
+                    lastId = car.getId();
+                }
+            } while (chunk.size() == chunkSize);
+
+            withWriteLock(() -> {
+                pendingEvents.forEach(rebuilt::apply);
+                pendingEvents = null;
+                index = rebuilt;
+            });
+            log.info("Built car search index: {} cars, {} tokens in {} ms",
+                    rebuilt.docs.size(), rebuilt.postings.size(), (System.nanoTime() - startedAt) / 1_000_000);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onCarChanged(CarChangedEvent event) {
+        withWriteLock(() -> {
+            index.apply(event);
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+        });
+    }
+
+    /**
+     * Ranks cars by how well their words match the query words: exact match,
+     * then prefix match, then trigram similarity for typos.
+     */
+    public List<CarSearchHit> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                // Для каждого слова запроса берётся лучшее совпадение в машине
+                Map<Long, Double> termScores = new HashMap<>();
+                index.matchingTokens(term, minSimilarity).forEach((token, similarity) ->
+                        index.postings.get(token).forEach((id, weight) ->
+                                termScores.merge(id, similarity * weight, Math::max)));
+                termScores.forEach((id, score) -> scores.merge(id, score, Double::sum));
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(entry -> {
+                        Doc doc = index.docs.get(entry.getKey());
+                        return new CarSearchHit(entry.getKey(), doc.brand, doc.model, doc.color, entry.getValue());
+                    })
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Words starting with the prefix, most frequent first, as they are written in the data.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String normalized = prefix.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            return index.postings.subMap(normalized, normalized + Character.MAX_VALUE).entrySet().stream()
+                    .sorted(Comparator.comparingInt((Map.Entry<String, Map<Long, Float>> entry) -> entry.getValue().size())
+                            .reversed()
+                            .thenComparing(Map.Entry::getKey))
+                    .limit(limit)
+                    .map(entry -> index.displayForms.get(entry.getKey()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Триграммы слова с границами: "bmw" -> "$bm", "bmw", "mw$"
+    static Set<String> trigrams(String token) {
+        String padded = "$" + token + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private record Doc(String brand, String model, String color, Set<String> tokens) {
+    }
+
+    private static class Index {
+
+        private final Map<Long, Doc> docs = new HashMap<>();
+        // слово -> id машины -> вес поля, в котором оно встретилось
+        private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+        private final Map<String, Set<String>> tokensByTrigram = new HashMap<>();
+        private final Map<String, String> displayForms = new HashMap<>();
+
+        private void apply(CarChangedEvent event) {
+            if (event.getType() == CarChangeType.DELETED) {
+                remove(event.getId());
+            } else {
+                put(event.getCar());
+            }
+        }
+
+        private void put(Car car) {
+            remove(car.getId());
+
+            Set<String> tokens = new LinkedHashSet<>();
+            addField(car.getId(), car.getBrand(), BRAND_WEIGHT, tokens);
+            addField(car.getId(), car.getModel(), MODEL_WEIGHT, tokens);
+            addField(car.getId(), car.getColor(), COLOR_WEIGHT, tokens);
+            docs.put(car.getId(), new Doc(car.getBrand(), car.getModel(), car.getColor(), tokens));
+        }
+
+        private void addField(Long id, String value, float weight, Set<String> docTokens) {
+            if (value == null) {
+                return;
+            }
+            for (String word : value.split("[^\\p{L}\\p{N}]+")) {
+                String token = word.toLowerCase(Locale.ROOT);
+                if (token.isEmpty()) {
+                    continue;
+                }
+                docTokens.add(token);
+                displayForms.put(token, word);
+                Map<Long, Float> posting = postings.computeIfAbsent(token, key -> {
+                    for (String gram : trigrams(key)) {
+                        tokensByTrigram.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+                    }
+                    return new HashMap<>();
+                });
+                posting.merge(id, weight, Math::max);
+            }
+        }
+
+        private void remove(Long id) {
+            Doc doc = docs.remove(id);
+            if (doc == null) {
+                return;
+            }
+            for (String token : doc.tokens()) {
+                Map<Long, Float> posting = postings.get(token);
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(token);
+                    displayForms.remove(token);
+                    for (String gram : trigrams(token)) {
+                        Set<String> tokens = tokensByTrigram.get(gram);
+                        tokens.remove(token);
+                        if (tokens.isEmpty()) {
+                            tokensByTrigram.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Слова индекса, похожие на слово запроса, с оценкой от 0 до 1
+        private Map<String, Double> matchingTokens(String term, double minSimilarity) {
+            Map<String, Double> matches = new HashMap<>();
+
+            for (String token : postings.subMap(term, term + Character.MAX_VALUE).keySet()) {
+                // Точное совпадение — 1, начало слова — чуть меньше, чем длиннее остаток
+                matches.put(token, token.equals(term) ? 1.0 : 0.8 + 0.2 * term.length() / token.length());
+            }
+
+            Set<String> termGrams = trigrams(term);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : termGrams) {
+                for (String token : tokensByTrigram.getOrDefault(gram, Set.of())) {
+                    shared.merge(token, 1, Integer::sum);
+                }
+            }
+            shared.forEach((token, common) -> {
+                int union = termGrams.size() + trigrams(token).size() - common;
+                double similarity = (double) common / union;
+                if (similarity >= minSimilarity) {
+                    // Опечатка всегда ниже точного и префиксного совпадения
+                    matches.merge(token, 0.7 * similarity, Math::max);
+                }
+            });
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package de.ait.service;
+
+import de.ait.dto.CarStats;
+import de.ait.event.CarChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves {@code /api/cars/stats} from a {@link CarStatsSummary} kept in memory and
+ * maintained from {@link CarChangedEvent}s. Every event carries the previous state of
+ * the row, so an update or delete subtracts the old values and adds the new ones.
+ * The listener only queues the event, and takes the lock just to apply the queue
+ * when nobody holds it, so writers never wait for readers. Readers apply whatever
+ * is still queued.
+ * <p>
+ * The summary is built from grouped SQL aggregates at startup and rebuilt every
+ * {@code reconcile-interval} by a scheduled job, to pick up writes made outside
+ * the API. Requests only build it when there is none yet (before startup finished
+ * or after {@link #invalidate()}).
+ */
+@Service
+@Slf4j
+public class CarStatsService {
+
+    private static final int VERSION_CHECK_CHUNK = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final Queue<CarChangedEvent> queuedEvents = new ConcurrentLinkedQueue<>();
+
+    private CarStatsSummary summary;
+    // Не null, пока идёт перестроение: события за это время проверяются по снимку и доигрываются на новой сводке
+    private List<CarChangedEvent> pendingEvents;
+
+    public CarStatsService(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Все запросы перестроения видят один снимок; транзакция не read-only, поэтому идёт на primary
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    public CarStats getStats() {
+        lock.lock();
+        try {
+            if (summary != null) {
+                applyQueuedEvents();
+                return summary.toStats();
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Перестроение берёт lock само, поэтому вызывается без него
+        reconcile();
+        return getStats();
+    }
+
+    // Для записей мимо API (SQL-скрипты, миграции): следующий запрос пересчитает сводку
+    public void invalidate() {
+        lock.lock();
+        try {
+            summary = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onCarChanged(CarChangedEvent event) {
+        queuedEvents.add(event);
+        if (lock.tryLock()) {
+            try {
+                applyQueuedEvents();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.cars.stats.reconcile-interval:10m}",
+            initialDelayString = "${app.cars.stats.reconcile-interval:10m}")
+    public void reconcile() {
+        rebuildLock.lock();
+        try {
+            long startedAt = System.nanoTime();
+            withLock(() -> pendingEvents = new ArrayList<>());
+
+            snapshotTransaction.executeWithoutResult(status -> {
+                CarStatsSummary snapshot = readSummary();
+                // Проверка версий идёт в том же снимке, поэтому и под блокировкой
+                withLock(() -> {
+                    applyQueuedEvents();
+                    Map<Long, Long> snapshotVersions = readVersions(pendingEvents);
+                    for (CarChangedEvent event : pendingEvents) {
+                        Long version = snapshotVersions.get(event.getId());
+                        if (version == null || version < event.getVersion()) {
+                            apply(snapshot, event);
+                        }
+                    }
+                    pendingEvents = null;
+                    summary = snapshot;
+                });
+            });
+            log.debug("Rebuilt car stats summary in {} ms", (System.nanoTime() - startedAt) / 1_000_000);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Вызывается только под lock
+    private void applyQueuedEvents() {
+        CarChangedEvent event;
+        while ((event = queuedEvents.poll()) != null) {
+            if (summary != null) {
+                apply(summary, event);
+            }
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+        }
+    }
+
+    private static void apply(CarStatsSummary target, CarChangedEvent event) {
+        if (event.getPrevious() != null) {
+            target.remove(event.getPrevious());
+        }
+        if (event.getCar() != null) {
+            target.add(event.getCar());
+        }
+    }
+
+    private CarStatsSummary readSummary() {
+        CarStatsSummary snapshot = new CarStatsSummary(LocalDateTime.now());
+
+        addFacet(snapshot, CarStatsSummary.BRAND, "brand");
+        addFacet(snapshot, CarStatsSummary.FUEL_TYPE, "fuel_type");
+        addFacet(snapshot, CarStatsSummary.TRANSMISSION, "transmission");
+        addFacet(snapshot, CarStatsSummary.STATUS, "status");
+
+        // Распределение значений, а не строки: в приложение приходит по строке на каждую различную цену
+        jdbcTemplate.query("SELECT price, COUNT(*) FROM cars WHERE deleted = FALSE GROUP BY price",
+                rs -> { snapshot.addPrice(rs.getInt(1), rs.getLong(2)); });
+        jdbcTemplate.query("SELECT horsepower, COUNT(*) FROM cars WHERE deleted = FALSE GROUP BY horsepower",
+                rs -> { snapshot.addHorsepower(rs.getInt(1), rs.getLong(2)); });
+
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cars WHERE deleted = FALSE", Long.class);
+        snapshot.setTotal(total == null ? 0 : total);
+        return snapshot;
+    }
+
+    // Версии строк событий в снимке, включая удалённые: событие уже учтено, если снимок видел его версию.
+    // Строки нет в снимке — её создали позже, и все её события нужно доиграть
+    private Map<Long, Long> readVersions(List<CarChangedEvent> events) {
+        Map<Long, Long> versions = new HashMap<>();
+        List<Long> ids = events.stream().map(CarChangedEvent::getId).distinct().toList();
+        for (int start = 0; start < ids.size(); start += VERSION_CHECK_CHUNK) {
+            List<Long> chunk = ids.subList(start, Math.min(start + VERSION_CHECK_CHUNK, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("SELECT id, version FROM cars WHERE id IN (" + placeholders + ")",
+                    rs -> { versions.put(rs.getLong(1), rs.getLong(2)); }, chunk.toArray());
+        }
+        return versions;
+    }
+
+    // column — только из констант выше, не из запроса клиента
+    private void addFacet(CarStatsSummary target, String facet, String column) {
+        jdbcTemplate.query("SELECT " + column + ", COUNT(*) FROM cars WHERE deleted = FALSE GROUP BY " + column,
+                rs -> { target.addFacet(facet, rs.getString(1), rs.getLong(2)); });
+    }
+
+    private void withLock(Runnable action) {
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
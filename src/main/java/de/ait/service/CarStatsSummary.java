@@ -0,0 +1,153 @@
+package de.ait.service;
+
+import de.ait.dto.CarStats;
+import de.ait.dto.CarStats.ValueStats;
+import de.ait.model.Car;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory aggregates of the live inventory: counts per facet value and, for
+ * prices and horsepower, count, sum, the distribution (value -> count) and a
+ * log-linear histogram. Every aggregate can be decremented, so updates and deletes
+ * are applied by removing the previous state and adding the new one.
+ * Not thread-safe; CarStatsService guards it.
+ */
+class CarStatsSummary {
+
+    static final String BRAND = "brand";
+    static final String FUEL_TYPE = "fuelType";
+    static final String TRANSMISSION = "transmission";
+    static final String STATUS = "status";
+
+    private final Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+    private final ValueDistribution prices = new ValueDistribution();
+    private final ValueDistribution horsepowers = new ValueDistribution();
+    private final LocalDateTime computedAt;
+    private long total;
+
+    CarStatsSummary(LocalDateTime computedAt) {
+        this.computedAt = computedAt;
+        for (String facet : new String[]{BRAND, FUEL_TYPE, TRANSMISSION, STATUS}) {
+            facets.put(facet, new TreeMap<>());
+        }
+    }
+
+    LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+
+    void addFacet(String facet, String value, long count) {
+        // Значение, у которого не осталось машин, из фасета пропадает
+        facets.get(facet).compute(value, (key, current) -> {
+            long updated = (current == null ? 0 : current) + count;
+            return updated == 0 ? null : updated;
+        });
+    }
+
+    void addPrice(int price, long count) {
+        prices.add(price, count);
+    }
+
+    void addHorsepower(int horsepower, long count) {
+        horsepowers.add(horsepower, count);
+    }
+
+    void setTotal(long total) {
+        this.total = total;
+    }
+
+    void add(Car car) {
+        apply(car, 1);
+    }
+
+    void remove(Car car) {
+        apply(car, -1);
+    }
+
+    private void apply(Car car, long count) {
+        total += count;
+        addFacet(BRAND, car.getBrand(), count);
+        addFacet(FUEL_TYPE, car.getFuelType().name(), count);
+        addFacet(TRANSMISSION, car.getTransmission().name(), count);
+        addFacet(STATUS, car.getStatus().name(), count);
+        addPrice(car.getPrice(), count);
+        addHorsepower(car.getHorsepower(), count);
+    }
+
+    CarStats toStats() {
+        Map<String, Map<String, Long>> facetsCopy = new LinkedHashMap<>();
+        facets.forEach((facet, counts) -> facetsCopy.put(facet, new LinkedHashMap<>(counts)));
+        return new CarStats(total, facetsCopy, prices.toStats(), horsepowers.toStats(), computedAt);
+    }
+
+    /**
+     * Percentiles come from the histogram: finding the bucket of a rank costs at most
+     * {@link #BUCKETS} steps, however many distinct values there are. The answer is
+     * then snapped to the smallest real value in that bucket, so it is always a value
+     * some car has and is off by less than 1/{@link #SUB_BUCKETS} of the exact
+     * nearest-rank percentile (PERCENTILE_DISC). Min and max are exact.
+     */
+    private static class ValueDistribution {
+
+        // Значения до 2 * SUB_BUCKETS попадают каждое в свою корзину, дальше на каждую степень двойки по SUB_BUCKETS корзин
+        private static final int SUB_BUCKET_BITS = 7;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKETS = (32 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        private final TreeMap<Integer, Long> values = new TreeMap<>();
+        private final long[] buckets = new long[BUCKETS];
+        private long count;
+        private long sum;
+
+        private void add(int value, long count) {
+            values.compute(value, (key, current) -> {
+                long updated = (current == null ? 0 : current) + count;
+                return updated == 0 ? null : updated;
+            });
+            buckets[bucket(value)] += count;
+            this.count += count;
+            this.sum += value * count;
+        }
+
+        private ValueStats toStats() {
+            if (count == 0) {
+                return new ValueStats(null, null, null, null, null, null);
+            }
+            return new ValueStats(values.firstKey(), values.lastKey(), (double) sum / count,
+                    percentile(0.50), percentile(0.90), percentile(0.99));
+        }
+
+        // Ближайший ранг, как PERCENTILE_DISC в SQL, с точностью до корзины
+        private Integer percentile(double fraction) {
+            long rank = Math.max(1, (long) Math.ceil(fraction * count));
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += buckets[bucket];
+                if (seen >= rank) {
+                    return values.ceilingKey(lowestValue(bucket));
+                }
+            }
+            return values.lastKey();
+        }
+
+        private static int bucket(int value) {
+            if (value < 2 * SUB_BUCKETS) {
+                return Math.max(value, 0);
+            }
+            int shift = 31 - Integer.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            return shift * SUB_BUCKETS + (value >>> shift);
+        }
+
+        private static int lowestValue(int bucket) {
+            if (bucket < 2 * SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = bucket / SUB_BUCKETS - 1;
+            return (bucket - shift * SUB_BUCKETS) << shift;
+        }
+    }
+}
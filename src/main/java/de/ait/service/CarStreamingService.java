@@ -0,0 +1,58 @@
+package de.ait.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.ait.model.Car;
+import de.ait.repository.CarRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+@Service
+@Slf4j
+public class CarStreamingService {
+
+    private final CarRepository carRepository;
+    private final ObjectMapper objectMapper;
+
+    public CarStreamingService(CarRepository carRepository, ObjectMapper objectMapper) {
+        this.carRepository = carRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Value("${app.cars.stream.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Writes the whole inventory as a JSON array, walking it in keyset chunks so
+     * only one chunk of cars is held in memory at a time.
+     */
+    public void writeAllAsJsonArray(OutputStream outputStream) throws IOException {
+        long written = 0;
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartArray();
+
+            long lastId = 0;
+            List<Car> chunk;
+            do {
+                chunk = carRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(chunkSize));
+                for (Car car : chunk) {
+                    generator.writeObject(car);
+                    lastId = car.getId();
+                }
+                written += chunk.size();
+                generator.flush();
+            } while (chunk.size() == chunkSize);
+
+            generator.writeEndArray();
+        }
+
+        log.debug("Streamed {} cars", written);
+    }
+}
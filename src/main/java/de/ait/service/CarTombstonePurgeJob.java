@@ -0,0 +1,52 @@
+package de.ait.service;
+
+import de.ait.repository.CarRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Hard-deletes soft-deleted cars once they are older than the retention period.
+ * Works in small batches, each in its own transaction, so the purge never holds
+ * long locks on the cars table.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cars.purge.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class CarTombstonePurgeJob {
+
+    private final CarRepository carRepository;
+
+    public CarTombstonePurgeJob(CarRepository carRepository) {
+        this.carRepository = carRepository;
+    }
+
+    @Value("${app.cars.purge.retention:30d}")
+    private Duration retention;
+
+    @Value("${app.cars.purge.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.cars.purge.interval:1h}", initialDelayString = "${app.cars.purge.interval:1h}")
+    public void purge() {
+        int purged = purgeDeletedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} soft-deleted cars older than {}", purged, retention);
+        }
+    }
+
+    public int purgeDeletedBefore(LocalDateTime deletedBefore) {
+        int total = 0;
+        int purged;
+        do {
+            purged = carRepository.purgeDeleted(deletedBefore, batchSize);
+            total += purged;
+        } while (purged == batchSize);
+        return total;
+    }
+}
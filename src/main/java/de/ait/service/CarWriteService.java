@@ -0,0 +1,105 @@
+package de.ait.service;
+
+import de.ait.enums.CarChangeType;
+import de.ait.event.CarChangedEvent;
+import de.ait.model.Car;
+import de.ait.repository.CarRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Creates, updates and deletes cars and publishes a {@link CarChangedEvent} for
+ * each committed write. An update or delete is one SQL statement that also returns
+ * the previous state of the row ({@link de.ait.repository.CarWriteOperations}); the
+ * event carries it, so listeners such as {@link CarStatsService} can subtract it.
+ * {@code expectedVersion} comes from the client's If-Match header; null means any
+ * version is accepted. A version mismatch throws {@link ObjectOptimisticLockingFailureException}.
+ */
+@Service
+public class CarWriteService {
+
+    private final CarRepository carRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public CarWriteService(CarRepository carRepository, ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager) {
+        this.carRepository = carRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public Car create(Car car) {
+        Car savedCar = carRepository.save(car);
+        eventPublisher.publishEvent(new CarChangedEvent(CarChangeType.CREATED, savedCar.getId(), savedCar, null));
+        return savedCar;
+    }
+
+    /**
+     * Returns the stored row: the previous row returned by the UPDATE with the changes,
+     * the new updatedAt and the next version applied, so it is not read again.
+     */
+    public Optional<Car> update(Long id, Car changes, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        Car previous = transactionTemplate.execute(status -> carRepository
+                .updateReturningPrevious(id, changes, expectedVersion, now)
+                .orElseGet(() -> rejectIfStale(id, expectedVersion)));
+
+        if (previous == null) {
+            return Optional.empty();
+        }
+        Car stored = stored(previous, changes, now);
+        eventPublisher.publishEvent(new CarChangedEvent(CarChangeType.UPDATED, id, stored, previous));
+        return Optional.of(stored);
+    }
+
+    public boolean delete(Long id, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        Car previous = transactionTemplate.execute(status -> carRepository
+                .softDeleteReturningPrevious(id, expectedVersion, now)
+                .orElseGet(() -> rejectIfStale(id, expectedVersion)));
+
+        if (previous == null) {
+            return false;
+        }
+        eventPublisher.publishEvent(new CarChangedEvent(CarChangeType.DELETED, id, null, previous));
+        return true;
+    }
+
+    // Запись не затронула ни одной строки. Без If-Match это значит 404, и второго запроса нет.
+    // С If-Match проверяем, есть ли машина: в той же read-write транзакции, то есть на primary
+    private Car rejectIfStale(Long id, Long expectedVersion) {
+        if (expectedVersion != null && carRepository.existsCarById(id)) {
+            throw new ObjectOptimisticLockingFailureException(Car.class, id);
+        }
+        return null;
+    }
+
+    private static Car stored(Car previous, Car changes, LocalDateTime now) {
+        Car stored = new Car();
+        stored.setId(previous.getId());
+        stored.setBrand(changes.getBrand());
+        stored.setModel(changes.getModel());
+        stored.setProductionYear(changes.getProductionYear());
+        stored.setMileage(changes.getMileage());
+        stored.setPrice(changes.getPrice());
+        stored.setStatus(changes.getStatus());
+        stored.setColor(changes.getColor());
+        stored.setHorsepower(changes.getHorsepower());
+        stored.setFuelType(changes.getFuelType());
+        stored.setTransmission(changes.getTransmission());
+        stored.setCreatedAt(previous.getCreatedAt());
+        stored.setUpdatedAt(now);
+        stored.setVersion(previous.getVersion() + 1);
+        return stored;
+    }
+}
@@ -0,0 +1,210 @@
+package de.ait.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.ait.dto.CarOfferCampaignBatch;
+import de.ait.dto.CarOfferEmailRequest;
+import de.ait.dto.TestDriveConfirmationEmailRequest;
+import de.ait.enums.CampaignRecipientStatus;
+import de.ait.enums.EmailType;
+import de.ait.enums.OutboxStatus;
+import de.ait.model.EmailOutboxMessage;
+import de.ait.repository.EmailOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@Component
+@ConditionalOnProperty(name = "app.mail.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailOutboxService emailOutboxService;
+    private final CarOfferEmailService carOfferEmailService;
+    private final TestDriveEmailService testDriveEmailService;
+    private final ThreadPoolTaskExecutor emailOutboxExecutor;
+    private final ObjectMapper objectMapper;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository,
+                                 EmailOutboxService emailOutboxService,
+                                 CarOfferEmailService carOfferEmailService,
+                                 TestDriveEmailService testDriveEmailService,
+                                 ThreadPoolTaskExecutor emailOutboxExecutor,
+                                 ObjectMapper objectMapper) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailOutboxService = emailOutboxService;
+        this.carOfferEmailService = carOfferEmailService;
+        this.testDriveEmailService = testDriveEmailService;
+        this.emailOutboxExecutor = emailOutboxExecutor;
+        this.objectMapper = objectMapper;
+    }
+
+    @Value("${app.mail.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.initial-backoff:10s}")
+    private Duration initialBackoff;
+
+    @Value("${app.mail.outbox.max-backoff:30m}")
+    private Duration maxBackoff;
+
+    @Value("${app.mail.outbox.sending-timeout:5m}")
+    private Duration sendingTimeout;
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval:1s}")
+    public void dispatch() {
+        // updated_at при claim служит меткой владельца, поэтому точность как у колонки TIMESTAMP
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        int released = emailOutboxRepository.releaseStuck(now.minus(sendingTimeout), now);
+        if (released > 0) {
+            log.warn("Re-queued {} outbox emails stuck in SENDING", released);
+        }
+
+        int freeWorkers = emailOutboxExecutor.getMaxPoolSize() - emailOutboxExecutor.getActiveCount();
+        if (freeWorkers <= 0) {
+            return;
+        }
+
+        List<EmailOutboxMessage> due = emailOutboxRepository
+                .findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(OutboxStatus.PENDING, now, Limit.of(freeWorkers));
+
+        for (EmailOutboxMessage message : due) {
+            if (emailOutboxRepository.claim(message.getId(), now) != 1) {
+                continue;
+            }
+            try {
+                emailOutboxExecutor.execute(() -> deliver(message, now));
+            } catch (TaskRejectedException exception) {
+                // freeWorkers — лишь снимок: воркеры кончились, остальное заберём в следующий раз
+                emailOutboxRepository.unclaim(message.getId(), now, now);
+                log.debug("Outbox workers are busy, email {} stays queued", message.getId());
+                return;
+            }
+        }
+    }
+
+    private void deliver(EmailOutboxMessage message, LocalDateTime claimedAt) {
+        try {
+            send(message);
+            message.setStatus(OutboxStatus.SENT);
+            message.setLastError(null);
+            log.info("Outbox email {} ({}) sent", message.getId(), message.getType());
+        } catch (IllegalArgumentException | JsonProcessingException exception) {
+            // Повтор не поможет (машины уже нет или битый payload) — сразу в dead letter
+            markFailed(message, exception, true);
+        } catch (Exception exception) {
+            markFailed(message, exception, false);
+        }
+
+        int updated = emailOutboxRepository.finish(message.getId(), claimedAt, message.getStatus(), message.getAttempts(),
+                message.getLastError(), message.getNextAttemptAt(), LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        if (updated == 0) {
+            log.warn("Outbox email {} was re-queued as stuck while sending, result {} of this attempt is dropped",
+                    message.getId(), message.getStatus());
+        } else if (message.getStatus() == OutboxStatus.DEAD && message.getType() == EmailType.CAR_OFFER_CAMPAIGN_BATCH) {
+            recordCampaignFailure(message);
+        }
+    }
+
+    private void send(EmailOutboxMessage message) throws JsonProcessingException {
+        switch (message.getType()) {
+            case CAR_OFFER -> carOfferEmailService.sendCarOfferEmail(
+                    objectMapper.readValue(message.getPayload(), CarOfferEmailRequest.class));
+            case CAR_OFFER_CAMPAIGN_BATCH -> sendCampaignBatch(message,
+                    objectMapper.readValue(message.getPayload(), CarOfferCampaignBatch.class));
+            case TEST_DRIVE_CONFIRMATION -> testDriveEmailService.sendConfirmationEmail(
+                    objectMapper.readValue(message.getPayload(), TestDriveConfirmationEmailRequest.class));
+            case TEST_DRIVE_REMINDER -> testDriveEmailService.sendReminderEmail(
+                    objectMapper.readValue(message.getPayload(), TestDriveConfirmationEmailRequest.class));
+        }
+    }
+
+    // Батч целиком не переотправляем: отклонённые получатели уходят в outbox батчами из одного письма со своими повторами
+    private void sendCampaignBatch(EmailOutboxMessage message, CarOfferCampaignBatch batch) {
+        emailOutboxService.markCampaignStarted(message.getCampaignId());
+        List<Integer> failed = carOfferEmailService.sendCampaignBatch(batch);
+        int size = batch.getRecipients().size();
+
+        if (size == 1 && !failed.isEmpty()) {
+            // Письмо одному получателю не собирается — повтор не поможет
+            throw new IllegalArgumentException("Car offer email to " + batch.getRecipients().getFirst().getEmail()
+                    + " can not be built");
+        }
+
+        List<Integer> sent = new ArrayList<>(size - failed.size());
+        for (int i = 0; i < size; i++) {
+            if (!failed.contains(i)) {
+                sent.add(batch.getFirstPosition() + i);
+            }
+        }
+        emailOutboxService.recordCampaignOutcome(message.getCampaignId(), sent, CampaignRecipientStatus.SENT, null);
+
+        for (int i : failed) {
+            CarOfferCampaignBatch single = new CarOfferCampaignBatch(batch.getCarId(), batch.getOfferPrice(),
+                    batch.getFirstPosition() + i, List.of(batch.getRecipients().get(i)));
+            emailOutboxService.enqueue(EmailType.CAR_OFFER_CAMPAIGN_BATCH, single, message.getCampaignId());
+        }
+        if (!failed.isEmpty()) {
+            log.warn("Outbox campaign batch {}: {} of {} recipients re-queued as single emails",
+                    message.getId(), failed.size(), size);
+        }
+    }
+
+    // Батч ушёл в dead letter — его получатели, ещё не получившие результат, остаются без письма
+    private void recordCampaignFailure(EmailOutboxMessage message) {
+        try {
+            CarOfferCampaignBatch batch = objectMapper.readValue(message.getPayload(), CarOfferCampaignBatch.class);
+            List<Integer> positions = IntStream.range(0, batch.getRecipients().size())
+                    .mapToObj(i -> batch.getFirstPosition() + i)
+                    .toList();
+            emailOutboxService.recordCampaignOutcome(message.getCampaignId(), positions,
+                    CampaignRecipientStatus.FAILED, message.getLastError());
+        } catch (JsonProcessingException exception) {
+            log.error("Outbox campaign batch {} has a broken payload, recipient outcomes are not recorded", message.getId());
+        }
+    }
+
+    private void markFailed(EmailOutboxMessage message, Exception exception, boolean permanent) {
+        message.setAttempts(message.getAttempts() + 1);
+        message.setLastError(truncate(exception.toString()));
+
+        if (permanent || message.getAttempts() >= maxAttempts) {
+            message.setStatus(OutboxStatus.DEAD);
+            log.error("Outbox email {} ({}) moved to dead letter after {} attempts",
+                    message.getId(), message.getType(), message.getAttempts(), exception);
+            return;
+        }
+
+        Duration backoff = backoff(message.getAttempts());
+        message.setStatus(OutboxStatus.PENDING);
+        message.setNextAttemptAt(LocalDateTime.now().plus(backoff));
+        log.warn("Outbox email {} ({}) failed, attempt {} of {}, retry in {}",
+                message.getId(), message.getType(), message.getAttempts(), maxAttempts, backoff, exception);
+    }
+
+    // Экспоненциальная задержка: initial, 2*initial, 4*initial ... но не больше max
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,155 @@
+package de.ait.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.ait.dto.CampaignRecipient;
+import de.ait.dto.CampaignRecipientOutcome;
+import de.ait.dto.CarOfferCampaignBatch;
+import de.ait.dto.CarOfferCampaignResponse;
+import de.ait.dto.CarOfferCampaignStatus;
+import de.ait.enums.CampaignRecipientStatus;
+import de.ait.enums.EmailType;
+import de.ait.model.EmailCampaign;
+import de.ait.model.EmailCampaignRecipient;
+import de.ait.model.EmailOutboxMessage;
+import de.ait.repository.EmailCampaignRecipientRepository;
+import de.ait.repository.EmailCampaignRepository;
+import de.ait.repository.EmailOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@Slf4j
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailCampaignRepository emailCampaignRepository;
+    private final EmailCampaignRecipientRepository emailCampaignRecipientRepository;
+    private final ObjectMapper objectMapper;
+
+    public EmailOutboxService(EmailOutboxRepository emailOutboxRepository,
+                              EmailCampaignRepository emailCampaignRepository,
+                              EmailCampaignRecipientRepository emailCampaignRecipientRepository,
+                              ObjectMapper objectMapper) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailCampaignRepository = emailCampaignRepository;
+        this.emailCampaignRecipientRepository = emailCampaignRecipientRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Value("${app.mail.bulk.batch-size:50}")
+    private int batchSize;
+
+    /**
+     * Stores the email request in the outbox; {@link EmailOutboxDispatcher} sends it later.
+     */
+    public Long enqueue(EmailType type, Object request) {
+        return enqueue(type, request, null);
+    }
+
+    public Long enqueue(EmailType type, Object request, String campaignId) {
+        EmailOutboxMessage message = emailOutboxRepository.save(
+                new EmailOutboxMessage(type, serialize(request), campaignId, LocalDateTime.now()));
+        log.info("Email {} queued in outbox with id {}", type, message.getId());
+        return message.getId();
+    }
+
+    /**
+     * Queues a car offer campaign as one outbox message per {@code app.mail.bulk.batch-size}
+     * recipients, all in one transaction. The dispatcher sends each batch over one SMTP
+     * connection. Every recipient also gets a PENDING row that the dispatcher updates
+     * with the outcome, see {@link #campaignStatus(String)}.
+     */
+    @Transactional
+    public CarOfferCampaignResponse enqueueCampaign(Long carId, Integer offerPrice, List<CampaignRecipient> recipients) {
+        String campaignId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailCampaignRecipient> rows = new ArrayList<>(recipients.size());
+        List<EmailOutboxMessage> batches = new ArrayList<>(recipients.size() / batchSize + 1);
+
+        for (int i = 0; i < recipients.size(); i++) {
+            rows.add(new EmailCampaignRecipient(campaignId, i, recipients.get(i).getEmail(), recipients.get(i).getClientName()));
+        }
+        for (int start = 0; start < recipients.size(); start += batchSize) {
+            CarOfferCampaignBatch batch = new CarOfferCampaignBatch(carId, offerPrice, start,
+                    List.copyOf(recipients.subList(start, Math.min(start + batchSize, recipients.size()))));
+            batches.add(new EmailOutboxMessage(EmailType.CAR_OFFER_CAMPAIGN_BATCH, serialize(batch), campaignId, now));
+        }
+
+        emailCampaignRepository.save(new EmailCampaign(campaignId, carId, recipients.size(), now));
+        emailCampaignRecipientRepository.saveAll(rows);
+        emailOutboxRepository.saveAll(batches);
+        log.info("Car offer campaign {} for car {}: {} recipients queued in {} batches",
+                campaignId, carId, recipients.size(), batches.size());
+        return new CarOfferCampaignResponse(campaignId, recipients.size(), batches.size());
+    }
+
+    public void markCampaignStarted(String campaignId) {
+        emailCampaignRepository.markStarted(campaignId, LocalDateTime.now());
+    }
+
+    /**
+     * Records the final outcome of the given recipients (positions in the campaign) and
+     * closes the campaign once no recipient is pending.
+     */
+    public void recordCampaignOutcome(String campaignId, Collection<Integer> positions,
+                                      CampaignRecipientStatus status, String error) {
+        if (positions.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        emailCampaignRecipientRepository.finish(campaignId, positions, status, error, now);
+        if (emailCampaignRepository.markFinishedIfDone(campaignId, now) == 1) {
+            log.info("Car offer campaign {} finished", campaignId);
+        }
+    }
+
+    public Optional<CarOfferCampaignStatus> campaignStatus(String campaignId) {
+        return emailCampaignRepository.findById(campaignId).map(campaign -> {
+            List<EmailCampaignRecipient> rows = emailCampaignRecipientRepository.findByCampaignIdOrderByPositionAsc(campaignId);
+            List<CampaignRecipientOutcome> outcomes = new ArrayList<>(rows.size());
+            long sent = 0;
+            long failed = 0;
+            for (EmailCampaignRecipient row : rows) {
+                outcomes.add(new CampaignRecipientOutcome(row.getEmail(), row.getClientName(), row.getStatus(),
+                        row.getLastError(), row.getFinishedAt()));
+                if (row.getStatus() == CampaignRecipientStatus.SENT) {
+                    sent++;
+                } else if (row.getStatus() == CampaignRecipientStatus.FAILED) {
+                    failed++;
+                }
+            }
+            return new CarOfferCampaignStatus(campaignId, campaign.getCarId(), campaign.getRecipients(),
+                    sent, failed, rows.size() - sent - failed, campaign.getCreatedAt(), campaign.getStartedAt(),
+                    campaign.getFinishedAt(), sentPerSecond(sent, campaign), outcomes);
+        });
+    }
+
+    // null, пока ни один батч не взят в работу
+    private static Double sentPerSecond(long sent, EmailCampaign campaign) {
+        if (campaign.getStartedAt() == null) {
+            return null;
+        }
+        LocalDateTime end = campaign.getFinishedAt() != null ? campaign.getFinishedAt() : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(campaign.getStartedAt(), end).toMillis());
+        return sent * 1000.0 / millis;
+    }
+
+    private String serialize(Object request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalArgumentException("Email request can not be serialized", exception);
+        }
+    }
+}
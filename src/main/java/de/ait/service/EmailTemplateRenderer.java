@@ -0,0 +1,101 @@
+package de.ait.service;
+
+import de.ait.model.Car;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders the HTML email templates for every email service. With
+ * spring.thymeleaf.cache=true each template is parsed once and the parsed
+ * form is reused. The warm-up renders every template at startup, so the
+ * first real email does not pay for parsing. Every render is observed as
+ * {@code email.template.render}, tagged with the template name.
+ */
+@Component
+@Slf4j
+public class EmailTemplateRenderer {
+
+    public static final String CAR_OFFER = "car-offer-mail";
+    public static final String TEST_DRIVE_CONFIRMATION = "test-drive-confirmation";
+    public static final String TEST_DRIVE_REMINDER = "test-drive-reminder";
+
+    private static final List<String> TEMPLATES = List.of(CAR_OFFER, TEST_DRIVE_CONFIRMATION, TEST_DRIVE_REMINDER);
+
+    private final TemplateEngine templateEngine;
+
+    private final ObservationRegistry observationRegistry;
+
+    public EmailTemplateRenderer(TemplateEngine templateEngine, ObservationRegistry observationRegistry) {
+        this.templateEngine = templateEngine;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Value("${app.mail.templates.warm-up:true}")
+    private boolean warmUp;
+
+    public String render(String template, Map<String, Object> variables) {
+        Context context = new Context();
+        context.setVariables(variables);
+        return render(template, context);
+    }
+
+    /**
+     * Renders with a caller-owned context, so bulk sends can reuse one context
+     * and change only the per-recipient variables.
+     */
+    public String render(String template, Context context) {
+        return Observation.createNotStarted("email.template.render", observationRegistry)
+                .lowCardinalityKeyValue("template", template)
+                .observe(() -> templateEngine.process(template, context));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmUp) {
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        Map<String, Object> sample = sampleVariables();
+
+        for (String template : TEMPLATES) {
+            try {
+                render(template, sample);
+            } catch (RuntimeException exception) {
+                log.warn("Email template {} failed to warm up", template, exception);
+            }
+        }
+
+        log.info("Email templates warmed up in {} ms", (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    // Значения-заглушки: нужны только чтобы прогнать все выражения шаблонов
+    static Map<String, Object> sampleVariables() {
+        Car car = new Car("BMW", "X5", 2020, 30000, 35000, "AVAILABLE", "Black", 250, "PETROL", "AUTOMATIC");
+        return Map.ofEntries(
+                Map.entry("clientName", "Client"),
+                Map.entry("car", car),
+                Map.entry("carBrand", car.getBrand()),
+                Map.entry("carModel", car.getModel()),
+                Map.entry("productionYear", car.getProductionYear()),
+                Map.entry("mileage", car.getMileage()),
+                Map.entry("color", car.getColor()),
+                Map.entry("transmission", car.getTransmission()),
+                Map.entry("fuelType", car.getFuelType()),
+                Map.entry("offerPrice", car.getPrice()),
+                Map.entry("confirmUrl", "http://localhost:8080/confirm-offer?carId=0"),
+                Map.entry("testDriveDateTime", "2025-01-01 10:00"),
+                Map.entry("dealerAddress", "Address"),
+                Map.entry("dealerPhone", "+49 000 000000"));
+    }
+}
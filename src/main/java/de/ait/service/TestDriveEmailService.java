@@ -3,6 +3,8 @@ package de.ait.service;
 import de.ait.dto.TestDriveConfirmationEmailRequest;
 import de.ait.model.Car;
 import de.ait.repository.CarRepository;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -11,7 +13,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
 @Service
@@ -20,16 +21,17 @@ public class TestDriveEmailService {
 
     private final CarRepository carRepository;
     private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private final EmailTemplateRenderer emailTemplateRenderer;
+    private final ObservationRegistry observationRegistry;
 
     private static final Logger logger = LoggerFactory.getLogger(TestDriveEmailService.class);
 
     public void sendConfirmationEmail(TestDriveConfirmationEmailRequest request) {
-        sendEmail(request, "test-drive-confirmation.html", "Подтверждение тест-драйва");
+        sendEmail(request, EmailTemplateRenderer.TEST_DRIVE_CONFIRMATION, "Подтверждение тест-драйва");
     }
 
     public void sendReminderEmail(TestDriveConfirmationEmailRequest request) {
-        sendEmail(request, "test-drive-reminder.html", "Напоминание о тест-драйве");
+        sendEmail(request, EmailTemplateRenderer.TEST_DRIVE_REMINDER, "Напоминание о тест-драйве");
     }
 
     private void sendEmail(TestDriveConfirmationEmailRequest request, String templateName, String subject) {
@@ -43,7 +45,7 @@ public class TestDriveEmailService {
         context.setVariable("dealerAddress", request.getDealerAddress());
         context.setVariable("dealerPhone", request.getDealerPhone());
 
-        String htmlContent = templateEngine.process(templateName, context);
+        String htmlContent = emailTemplateRenderer.render(templateName, context);
 
         try {
             MimeMessage message = mailSender.createMimeMessage();
@@ -51,7 +53,10 @@ public class TestDriveEmailService {
             helper.setTo(request.getClientEmail());
             helper.setSubject(subject);
             helper.setText(htmlContent, true);
-            mailSender.send(message);
+            Observation.createNotStarted("email.send", observationRegistry)
+                    .lowCardinalityKeyValue("template", templateName)
+                    .lowCardinalityKeyValue("mode", "single")
+                    .observe(() -> mailSender.send(message));
             logger.info("Test drive email sent to {} for carId={} at {}", request.getClientEmail(), request.getCarId(), request.getTestDriveDateTime());
         } catch (MessagingException e) {
             logger.error("Failed to send test drive email", e);
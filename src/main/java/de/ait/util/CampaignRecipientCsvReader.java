@@ -0,0 +1,46 @@
+package de.ait.util;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import de.ait.dto.CampaignRecipient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads campaign recipients from a CSV with the columns {@code email,clientName}.
+ * A header row is optional. Values are not validated here.
+ */
+public final class CampaignRecipientCsvReader {
+
+    private static final ObjectReader READER = new CsvMapper()
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .enable(CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE)
+            .readerFor(CampaignRecipient.class)
+            .with(CsvSchema.builder()
+                    .addColumn("email")
+                    .addColumn("clientName")
+                    .build());
+
+    private CampaignRecipientCsvReader() {
+    }
+
+    public static List<CampaignRecipient> read(InputStream inputStream) throws IOException {
+        try (MappingIterator<CampaignRecipient> rows = READER.readValues(inputStream)) {
+            List<CampaignRecipient> recipients = rows.readAll(new ArrayList<>());
+
+            // Заголовок необязателен: схема задана колонками, так что он читается как первая строка
+            if (!recipients.isEmpty() && "email".equalsIgnoreCase(recipients.getFirst().getEmail())
+                    && "clientName".equalsIgnoreCase(recipients.getFirst().getClientName())) {
+                recipients.removeFirst();
+            }
+            return recipients;
+        }
+    }
+}
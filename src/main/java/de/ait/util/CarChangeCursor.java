@@ -0,0 +1,48 @@
+package de.ait.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque position in the change feed. It holds the (updated_at, id) of the
+ * last change a client has seen. Rows are ordered by both columns, so
+ * changes with the same timestamp are neither skipped nor repeated.
+ */
+@Getter
+@AllArgsConstructor
+public final class CarChangeCursor {
+
+    public static final CarChangeCursor START = new CarChangeCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime updatedAt;
+
+    private final long id;
+
+    public String encode() {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((updatedAt.toString() + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CarChangeCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed change cursor: " + cursor);
+            }
+            return new CarChangeCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException exception) {
+            throw new IllegalArgumentException("Malformed change cursor: " + cursor, exception);
+        }
+    }
+}
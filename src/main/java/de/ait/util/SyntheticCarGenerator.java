@@ -0,0 +1,196 @@
+package de.ait.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fills the cars table with synthetic inventory for load tests and local profiling.
+ * Brands, models and colors follow a used-car market mix, prices drop with age and
+ * mileage, and mileage grows with age. Rows go in through JDBC batches of
+ * {@code app.cars.generator.batch-size}, so millions of cars load in minutes.
+ * <p>
+ * {@code app.cars.generator.count} is the target size of the table: on a file-backed
+ * database a restart only tops up the missing rows. The same seed gives the same data.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cars.generator.enabled", havingValue = "true")
+@Slf4j
+public class SyntheticCarGenerator implements CommandLineRunner {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO cars (brand, model, production_year, mileage, price,
+                              status, color, horsepower, fuel_type, transmission)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    // brand, model, новая цена, л.с. от/до, топливо; вес — насколько модель частая
+    private static final List<CarModel> MODELS = List.of(
+            new CarModel("Volkswagen", "Golf", 28000, 110, 245, 14, "PETROL", "DIESEL", "HYBRID"),
+            new CarModel("Volkswagen", "Passat", 36000, 150, 280, 8, "PETROL", "DIESEL"),
+            new CarModel("Volkswagen", "Tiguan", 38000, 150, 320, 7, "PETROL", "DIESEL", "HYBRID"),
+            new CarModel("Volkswagen", "ID.3", 40000, 150, 204, 3, "ELECTRIC"),
+            new CarModel("BMW", "320i", 45000, 156, 184, 7, "PETROL"),
+            new CarModel("BMW", "520d", 58000, 190, 286, 5, "DIESEL", "HYBRID"),
+            new CarModel("BMW", "X5", 78000, 286, 530, 4, "PETROL", "DIESEL", "HYBRID"),
+            new CarModel("BMW", "M3", 90000, 431, 530, 1, "PETROL"),
+            new CarModel("Mercedes", "C200", 48000, 184, 204, 7, "PETROL", "DIESEL", "HYBRID"),
+            new CarModel("Mercedes", "E220", 60000, 194, 265, 5, "DIESEL", "HYBRID"),
+            new CarModel("Mercedes", "GLC", 62000, 197, 390, 4, "PETROL", "DIESEL", "HYBRID"),
+            new CarModel("Audi", "A3", 34000, 116, 245, 6, "PETROL", "DIESEL"),
+            new CarModel("Audi", "A4", 44000, 150, 265, 7, "PETROL", "DIESEL"),
+            new CarModel("Audi", "A6", 58000, 204, 340, 4, "PETROL", "DIESEL", "HYBRID"),
+            new CarModel("Audi", "Q5", 55000, 204, 367, 4, "PETROL", "DIESEL", "HYBRID"),
+            new CarModel("Opel", "Corsa", 20000, 75, 130, 8, "PETROL", "DIESEL", "ELECTRIC"),
+            new CarModel("Opel", "Astra", 27000, 110, 180, 7, "PETROL", "DIESEL", "HYBRID"),
+            new CarModel("Ford", "Fiesta", 19000, 75, 200, 7, "PETROL"),
+            new CarModel("Ford", "Focus", 26000, 100, 280, 8, "PETROL", "DIESEL"),
+            new CarModel("Skoda", "Octavia", 30000, 110, 245, 10, "PETROL", "DIESEL", "HYBRID"),
+            new CarModel("Skoda", "Fabia", 19000, 65, 150, 6, "PETROL"),
+            new CarModel("Toyota", "Corolla", 28000, 122, 196, 7, "HYBRID", "PETROL"),
+            new CarModel("Toyota", "RAV4", 40000, 218, 306, 5, "HYBRID"),
+            new CarModel("Toyota", "Yaris", 21000, 72, 130, 6, "HYBRID", "PETROL"),
+            new CarModel("Renault", "Clio", 19000, 65, 145, 6, "PETROL", "DIESEL", "HYBRID"),
+            new CarModel("Hyundai", "Tucson", 35000, 150, 265, 5, "PETROL", "DIESEL", "HYBRID"),
+            new CarModel("Kia", "Sportage", 34000, 150, 265, 5, "PETROL", "DIESEL", "HYBRID"),
+            new CarModel("Tesla", "Model 3", 45000, 283, 510, 4, "ELECTRIC"),
+            new CarModel("Tesla", "Model Y", 50000, 299, 514, 3, "ELECTRIC"),
+            new CarModel("Porsche", "911", 130000, 385, 650, 1, "PETROL")
+    );
+
+    private static final String[] COLORS = {"Black", "White", "Gray", "Silver", "Blue", "Red", "Green", "Brown", "Yellow"};
+    private static final int[] COLOR_WEIGHTS = {22, 22, 18, 14, 10, 7, 3, 2, 2};
+
+    private static final int MAX_AGE = 25;
+    private static final double MEAN_AGE = 6;
+    private static final double SOLD_SHARE = 0.15;
+    private static final double AUTOMATIC_SHARE = 0.7;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SyntheticCarGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Value("${app.cars.generator.count:100000}")
+    private long count;
+
+    @Value("${app.cars.generator.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${app.cars.generator.seed:42}")
+    private long seed;
+
+    @Override
+    public void run(String... args) {
+        generate(count);
+    }
+
+    /**
+     * Inserts cars until the table holds {@code targetCount} live rows.
+     *
+     * @return the number of cars inserted
+     */
+    public long generate(long targetCount) {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cars WHERE deleted = FALSE", Long.class);
+        long existingCars = existing == null ? 0 : existing;
+        long missing = targetCount - existingCars;
+        if (missing <= 0) {
+            log.info("Car generator: table already holds {} cars, nothing to do", existingCars);
+            return 0;
+        }
+
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed + existingCars);
+        int currentYear = Year.now().getValue();
+        int modelWeightTotal = MODELS.stream().mapToInt(CarModel::weight).sum();
+        int colorWeightTotal = 0;
+        for (int weight : COLOR_WEIGHTS) {
+            colorWeightTotal += weight;
+        }
+
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        long inserted = 0;
+        long nextReport = missing / 10;
+        while (inserted < missing) {
+            int size = (int) Math.min(batchSize, missing - inserted);
+            batch.clear();
+            for (int i = 0; i < size; i++) {
+                batch.add(nextCar(random, currentYear, modelWeightTotal, colorWeightTotal));
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+            inserted += size;
+
+            if (inserted >= nextReport && inserted < missing) {
+                log.info("Car generator: {} of {} cars inserted", inserted, missing);
+                nextReport += missing / 10;
+            }
+        }
+
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Car generator: inserted {} cars in {} ms ({} cars/s)",
+                inserted, millis, millis == 0 ? inserted : inserted * 1000 / millis);
+        return inserted;
+    }
+
+    private Object[] nextCar(SplittableRandom random, int currentYear, int modelWeightTotal, int colorWeightTotal) {
+        CarModel model = pickModel(random.nextInt(modelWeightTotal));
+
+        // Возраст: больше свежих машин, длинный хвост старых
+        int age = (int) Math.min(MAX_AGE, -MEAN_AGE * Math.log(1 - random.nextDouble()));
+        int mileage = age == 0
+                ? random.nextInt(5000)
+                : (int) Math.max(0, age * (14000 + random.nextGaussian() * 5000));
+
+        double wear = Math.max(0.3, 1 - mileage / 600_000.0);
+        double price = model.newPrice() * Math.pow(0.86, age) * wear * (1 + random.nextGaussian() * 0.08);
+        int roundedPrice = (int) Math.max(500, Math.round(price / 100) * 100);
+
+        String fuelType = model.fuelTypes()[random.nextInt(model.fuelTypes().length)];
+        String transmission = "ELECTRIC".equals(fuelType) || random.nextDouble() < AUTOMATIC_SHARE ? "AUTOMATIC" : "MANUAL";
+
+        return new Object[]{
+                model.brand(),
+                model.model(),
+                currentYear - age,
+                mileage,
+                roundedPrice,
+                random.nextDouble() < SOLD_SHARE ? "SOLD" : "AVAILABLE",
+                pickColor(random.nextInt(colorWeightTotal)),
+                model.minHorsepower() + random.nextInt(model.maxHorsepower() - model.minHorsepower() + 1),
+                fuelType,
+                transmission
+        };
+    }
+
+    private static CarModel pickModel(int point) {
+        for (CarModel model : MODELS) {
+            point -= model.weight();
+            if (point < 0) {
+                return model;
+            }
+        }
+        return MODELS.get(MODELS.size() - 1);
+    }
+
+    private static String pickColor(int point) {
+        for (int i = 0; i < COLORS.length; i++) {
+            point -= COLOR_WEIGHTS[i];
+            if (point < 0) {
+                return COLORS[i];
+            }
+        }
+        return COLORS[COLORS.length - 1];
+    }
+
+    private record CarModel(String brand, String model, int newPrice, int minHorsepower, int maxHorsepower,
+                            int weight, String... fuelTypes) {
+    }
+}
@@ -0,0 +1,56 @@
+package de.ait.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Error codes of {@link CarValidator}. A validation result is a bit mask of
+ * {@link #bit()}s; the texts are only built through {@link #messages(int)} at the HTTP boundary.
+ */
+public enum CarValidationError {
+
+    BRAND_EMPTY("Brand must not be empty"),
+    MODEL_EMPTY("Model must not be empty"),
+    PRODUCTION_YEAR_TOO_OLD("Production year must be >= 1900"),
+    MILEAGE_NEGATIVE("Mileage must be >= 0"),
+    PRICE_TOO_LOW("Price must be >= 1"),
+    STATUS_MISSING("Status must not be null"),
+    COLOR_EMPTY("Color must not be empty"),
+    HORSEPOWER_TOO_LOW("Horse power must be >= 1"),
+    FUEL_TYPE_MISSING("FuelType must not be null"),
+    TRANSMISSION_MISSING("Transmission must not be null");
+
+    private static final CarValidationError[] VALUES = values();
+
+    private final String message;
+
+    CarValidationError(String message) {
+        this.message = message;
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public String message() {
+        return message;
+    }
+
+    public boolean isSetIn(int errors) {
+        return (errors & bit()) != 0;
+    }
+
+    // Сообщения в порядке объявления кодов; для 0 — пустой неизменяемый список
+    public static List<String> messages(int errors) {
+        if (errors == 0) {
+            return List.of();
+        }
+        List<String> messages = new ArrayList<>(Integer.bitCount(errors));
+        for (CarValidationError error : VALUES) {
+            if (error.isSetIn(errors)) {
+                messages.add(error.message);
+            }
+        }
+        return messages;
+    }
+}
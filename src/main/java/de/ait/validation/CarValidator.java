@@ -1,61 +1,106 @@
 package de.ait.validation;
 
 import de.ait.model.Car;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import static de.ait.validation.CarValidationError.BRAND_EMPTY;
+import static de.ait.validation.CarValidationError.COLOR_EMPTY;
+import static de.ait.validation.CarValidationError.FUEL_TYPE_MISSING;
+import static de.ait.validation.CarValidationError.HORSEPOWER_TOO_LOW;
+import static de.ait.validation.CarValidationError.MILEAGE_NEGATIVE;
+import static de.ait.validation.CarValidationError.MODEL_EMPTY;
+import static de.ait.validation.CarValidationError.PRICE_TOO_LOW;
+import static de.ait.validation.CarValidationError.PRODUCTION_YEAR_TOO_OLD;
+import static de.ait.validation.CarValidationError.STATUS_MISSING;
+import static de.ait.validation.CarValidationError.TRANSMISSION_MISSING;
+
+/**
+ * Allocation-free car validation: {@link #validate(Car)} returns a bit mask of
+ * {@link CarValidationError}s, 0 meaning the car is valid. Message strings are only
+ * built in {@link #validateWithErrors(Car)}, where they are sent to the client.
+ */
 @Component
 public class CarValidator implements Validator<Car> {
 
-    private static final Logger log = LoggerFactory.getLogger(CarValidator.class);
-
     @Override
     public boolean isValid(Car car) {
-        return validateWithErrors(car).isEmpty();
+        return validate(car) == 0;
     }
 
     @Override
     public List<String> validateWithErrors(Car car) {
-        List<String> errors = new ArrayList<>();
+        return CarValidationError.messages(validate(car));
+    }
+
+    public int validate(Car car) {
+        int errors = 0;
 
-        if (car.getBrand() == null || car.getBrand().trim().isEmpty())
-            errors.add("Brand must not be empty");
+        if (isBlank(car.getBrand()))
+            errors |= BRAND_EMPTY.bit();
 
-        if (car.getModel() == null || car.getModel().trim().isEmpty())
-            errors.add("Model must not be empty");
+        if (isBlank(car.getModel()))
+            errors |= MODEL_EMPTY.bit();
 
         if (car.getProductionYear() < 1900)
-            errors.add("Production year must be >= 1900");
+            errors |= PRODUCTION_YEAR_TOO_OLD.bit();
 
         if (car.getMileage() < 0)
-            errors.add("Mileage must be >= 0");
+            errors |= MILEAGE_NEGATIVE.bit();
 
         if (car.getPrice() < 1)
-            errors.add("Price must be >= 1");
+            errors |= PRICE_TOO_LOW.bit();
 
         if (car.getStatus() == null)
-            errors.add("Status must not be null");
+            errors |= STATUS_MISSING.bit();
 
-        if (car.getColor() == null || car.getColor().trim().isEmpty())
-            errors.add("Color must not be empty");
+        if (isBlank(car.getColor()))
+            errors |= COLOR_EMPTY.bit();
 
         if (car.getHorsepower() < 1)
-            errors.add("Horse power must be >= 1");
+            errors |= HORSEPOWER_TOO_LOW.bit();
 
         if (car.getFuelType() == null)
-            errors.add("FuelType must not be null");
+            errors |= FUEL_TYPE_MISSING.bit();
 
         if (car.getTransmission() == null)
-            errors.add("Transmission must not be null");
+            errors |= TRANSMISSION_MISSING.bit();
+
+        return errors;
+    }
 
-        if (!errors.isEmpty()) {
-            log.warn("Validation for car with ID: {} is failed! | Errors: {}", car.getId(), errors);
+    /**
+     * Validates a batch of cars, writing the mask of the i-th car to {@code errors[i]}.
+     * The caller passes the array in so it can be reused across batches.
+     *
+     * @return the number of invalid cars
+     */
+    public int validateAll(List<? extends Car> cars, int[] errors) {
+        if (errors.length < cars.size()) {
+            throw new IllegalArgumentException("errors array is shorter than the batch: " + errors.length + " < " + cars.size());
         }
+        int invalid = 0;
+        for (int i = 0; i < cars.size(); i++) {
+            errors[i] = validate(cars.get(i));
+            if (errors[i] != 0) {
+                invalid++;
+            }
+        }
+        return invalid;
+    }
 
-        return errors;
+    // То же, что trim().isEmpty(), но без копии строки: trim() отрезает символы <= ' ',
+    // а String.isBlank() смотрит на Character.isWhitespace и не считает пустыми, например, управляющие символы
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,135 @@
+package de.ait.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.ait.model.Car;
+import de.ait.repository.CarRepository;
+import de.ait.service.CarColumnStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:columnstoredb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.cars.column-store.enabled=true"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class CarColumnStoreIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CarColumnStore carColumnStore;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM cars");
+        carRepository.save(new Car("Toyota", "Camry", 2020, 35000, 18000, "AVAILABLE", "Black", 200, "PETROL", "AUTOMATIC"));
+        carRepository.save(new Car("Toyota", "Corolla", 2019, 50000, 15000, "AVAILABLE", "White", 130, "HYBRID", "MANUAL"));
+        carRepository.save(new Car("BMW", "X5", 2018, 78000, 28000, "SOLD", "Black", 265, "DIESEL", "AUTOMATIC"));
+        carColumnStore.rebuild();
+    }
+
+    @Test
+    @DisplayName("Range and enum searches should be answered from the column store")
+    void testRangeSearchesShouldUseColumnStore() throws Exception {
+        mockMvc.perform(get("/api/cars/by-price").param("min", "15000").param("max", "20000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].model", contains("Camry", "Corolla")));
+
+        mockMvc.perform(get("/api/cars/by-power").param("minHp", "200").param("maxHp", "265"))
+                .andExpect(jsonPath("$[*].model", contains("Camry", "X5")));
+
+        mockMvc.perform(get("/api/cars/by-fuel").param("fuelType", "HYBRID"))
+                .andExpect(jsonPath("$[*].model", contains("Corolla")));
+
+        mockMvc.perform(get("/api/cars/by-power").param("minHp", "300").param("maxHp", "400"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("The column store should follow adds, updates and deletes made through the API")
+    void testColumnStoreShouldFollowWrites() throws Exception {
+        Car kia = new Car("Kia", "Rio", 2021, 10000, 16000, "AVAILABLE", "Red", 100, "PETROL", "MANUAL");
+        String kiaId = mockMvc.perform(post("/api/cars")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(kia)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/cars/by-price").param("min", "15000").param("max", "20000"))
+                .andExpect(jsonPath("$[*].model", contains("Camry", "Corolla", "Rio")));
+
+        kia.setPrice(40000);
+        mockMvc.perform(put("/api/cars/{id}", kiaId)
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(kia)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/cars/by-price").param("min", "30000").param("max", "50000"))
+                .andExpect(jsonPath("$[*].model", contains("Rio")))
+                .andExpect(jsonPath("$[0].price").value(40000));
+
+        mockMvc.perform(delete("/api/cars/{id}", kiaId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/cars/by-fuel").param("fuelType", "PETROL"))
+                .andExpect(jsonPath("$[*].model", contains("Camry")));
+    }
+
+    @Test
+    @DisplayName("Updates should move rows inside the sorted index in both directions without a rebuild")
+    void testUpdatesShouldKeepSortedIndexInOrder() throws Exception {
+        Car camry = carRepository.findAll().stream().filter(car -> car.getModel().equals("Camry")).findFirst().orElseThrow();
+        Car x5 = carRepository.findAll().stream().filter(car -> car.getModel().equals("X5")).findFirst().orElseThrow();
+
+        // Camry уходит ниже Corolla, X5 — вниз через обе, затем Camry обратно вверх до цены X5
+        camry.setPrice(12000);
+        mockMvc.perform(put("/api/cars/{id}", camry.getId())
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(camry)))
+                .andExpect(status().isOk());
+        x5.setPrice(15000);
+        mockMvc.perform(put("/api/cars/{id}", x5.getId())
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(x5)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/cars/by-price").param("min", "10000").param("max", "14999"))
+                .andExpect(jsonPath("$[*].model", contains("Camry")));
+        mockMvc.perform(get("/api/cars/by-price").param("min", "15000").param("max", "15000"))
+                .andExpect(jsonPath("$[*].model", contains("Corolla", "X5")));
+
+        camry.setPrice(15000);
+        mockMvc.perform(put("/api/cars/{id}", camry.getId())
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(camry)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/cars/by-price").param("min", "15000").param("max", "15000"))
+                .andExpect(jsonPath("$[*].model", contains("Camry", "Corolla", "X5")));
+        mockMvc.perform(get("/api/cars/by-price").param("min", "10000").param("max", "14999"))
+                .andExpect(jsonPath("$").isEmpty());
+    }
+}
@@ -1,26 +1,49 @@
 package de.ait.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.ait.config.CacheConfig;
 import de.ait.enums.CarStatus;
 import de.ait.enums.FuelType;
 import de.ait.enums.Transmission;
 import de.ait.model.Car;
 import de.ait.repository.CarRepository;
+import de.ait.service.CarSearchIndex;
+import de.ait.service.CarStatsService;
+import de.ait.service.CarTombstonePurgeJob;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -41,9 +64,30 @@ public class CarControllerIT {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CarTombstonePurgeJob carTombstonePurgeJob;
+
+    @Autowired
+    private CarStatsService carStatsService;
+
+    @Autowired
+    private CarSearchIndex carSearchIndex;
+
+    // deleteAll() теперь только помечает записи, поэтому таблица чистится напрямую
     @BeforeEach
     void setUp() {
-        carRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM cars");
+        cacheManager.getCache(CacheConfig.CARS_CACHE).clear();
+        carStatsService.invalidate();
     }
 
     private Car buildValidCar(String brand, String model) {
@@ -180,7 +224,16 @@ public class CarControllerIT {
                         .contentType("application/json")
                         .content(objectMapper.writeValueAsString(car)))
                 .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$.errors").isArray());
+                .andExpect(jsonPath("$.errors", contains(
+                        "Brand must not be empty",
+                        "Production year must be >= 1900",
+                        "Mileage must be >= 0",
+                        "Price must be >= 1",
+                        "Status must not be null",
+                        "Color must not be empty",
+                        "Horse power must be >= 1",
+                        "FuelType must not be null",
+                        "Transmission must not be null")));
 
         assertEquals(0, carRepository.count());
     }
@@ -193,10 +246,15 @@ public class CarControllerIT {
 
         existing.setColor("Blue");
 
+        // Без If-Match ответ тоже — сохранённая строка со своим ETag
         mockMvc.perform(put("/api/cars/" + existing.getId())
                         .contentType("application/json")
                         .content(objectMapper.writeValueAsString(existing)))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + existing.getId() + "-1\""))
+                .andExpect(jsonPath("$.version").value(1))
+                .andExpect(jsonPath("$.color").value("Blue"))
+                .andExpect(jsonPath("$.createdAt").exists());
 
         Optional<Car> optionalCar = carRepository.findById(existing.getId());
         assertTrue(optionalCar.isPresent());
@@ -225,10 +283,546 @@ public class CarControllerIT {
         assertEquals(15000, updatedCar.get().getPrice());
     }
 
+    @Test
+    @DisplayName("GET /api/cars?size=2 should page through cars with the X-Next-Cursor header")
+    void testGetAllCarsShouldPageByCursor() throws Exception {
+        carRepository.save(buildValidCar("Audi", "A6"));
+        carRepository.save(buildValidCar("Kia", "Rio"));
+        carRepository.save(buildValidCar("BMW", "X5"));
+
+        MvcResult firstPage = mockMvc.perform(get("/api/cars").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*].model", contains("A6", "Rio")))
+                .andReturn();
+
+        String cursor = firstPage.getResponse().getHeader(CarController.NEXT_CURSOR_HEADER);
+        assertNotNull(cursor);
+
+        mockMvc.perform(get("/api/cars").param("size", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].model").value("X5"))
+                .andExpect(header().doesNotExist(CarController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("GET /api/cars with a broken cursor or size should return 400")
+    void testGetAllCarsWithInvalidPagingShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/cars").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
 
+        mockMvc.perform(get("/api/cars").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
 
+    @Test
+    @DisplayName("GET /api/cars/stream should stream every car as a JSON array")
+    void testStreamAllCarsShouldReturnAllCars() throws Exception {
+        carRepository.save(buildValidCar("Audi", "A6"));
+        carRepository.save(buildValidCar("Kia", "Rio"));
 
+        MvcResult result = mockMvc.perform(get("/api/cars/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*].brand", containsInAnyOrder("Audi", "Kia")));
+    }
 
+    @Test
+    @DisplayName("GET /api/cars/query should combine all filters into one paged result")
+    void testQueryCarsShouldCombineFilters() throws Exception {
+        Car cheapBmw = buildValidCar("BMW", "320i");
+        cheapBmw.setPrice(15000);
+        Car blackBmw = buildValidCar("BMW", "X5");
+        blackBmw.setColor("Black");
+        blackBmw.setPrice(45000);
+        Car blackAudi = buildValidCar("Audi", "A6");
+        blackAudi.setColor("Black");
+        blackAudi.setPrice(40000);
+
+        carRepository.saveAll(List.of(cheapBmw, blackBmw, blackAudi));
+
+        mockMvc.perform(get("/api/cars/query")
+                        .param("color", "BLACK")
+                        .param("minPrice", "20000")
+                        .param("fuelType", "DIESEL")
+                        .param("sort", "price,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].model", contains("X5", "A6")))
+                .andExpect(jsonPath("$.page.totalElements").value(2));
+
+        mockMvc.perform(get("/api/cars/query").param("brand", "BMW").param("maxPrice", "20000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].model").value("320i"));
+    }
+
+    @Test
+    @DisplayName("GET /api/cars/query with an inverted range or unknown sort should return 400")
+    void testQueryCarsWithInvalidInputShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/cars/query").param("minPrice", "5000").param("maxPrice", "100"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/cars/query").param("sort", "secret"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Cache eviction inside a transaction should wait for the commit")
+    void testCacheEvictionShouldHappenAfterCommit() {
+        Car saved = carRepository.save(buildValidCar("BMW", "X5"));
+        carRepository.findById(saved.getId());
+        Cache cache = cacheManager.getCache(CacheConfig.CARS_CACHE);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            saved.setColor("Blue");
+            carRepository.save(saved);
+            // До коммита в кэше остаётся закоммиченная строка, а не снятая раньше времени
+            assertNotNull(cache.get(saved.getId()));
+        });
+
+        assertNull(cache.get(saved.getId()));
+    }
+
+    @Test
+    @DisplayName("GET /api/cars/{id} should be served from the cache and PUT should invalidate it")
+    void testGetCarByIdShouldBeCachedAndInvalidatedOnUpdate() throws Exception {
+        Car saved = carRepository.save(buildValidCar("BMW", "X5"));
+
+        mockMvc.perform(get("/api/cars/{id}", saved.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.color").value("red"));
+
+        assertNotNull(cacheManager.getCache(CacheConfig.CARS_CACHE).get(saved.getId()));
+
+        saved.setColor("Blue");
+        mockMvc.perform(put("/api/cars/{id}", saved.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(saved)))
+                .andExpect(status().isOk());
+
+        assertNull(cacheManager.getCache(CacheConfig.CARS_CACHE).get(saved.getId()));
+
+        mockMvc.perform(get("/api/cars/{id}", saved.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.color").value("Blue"));
+    }
+
+    @Test
+    @DisplayName("POST /api/cars/import with NDJSON should store valid rows and report invalid ones")
+    void testImportNdjsonShouldReportInvalidRows() throws Exception {
+        String ndjson = String.join("\n",
+                objectMapper.writeValueAsString(buildValidCar("Audi", "A6")),
+                objectMapper.writeValueAsString(buildValidCar("", "Rio")),
+                "{\"brand\":\"Kia\",\"model\":\"Ceed\",\"fuelType\":\"STEAM\"}",
+                objectMapper.writeValueAsString(buildValidCar("BMW", "X5")));
+
+        mockMvc.perform(post("/api/cars/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[*].row", contains(2, 3)));
+
+        assertThat(carRepository.findAll()).extracting(Car::getModel).containsExactlyInAnyOrder("A6", "X5");
+    }
+
+    @Test
+    @DisplayName("POST /api/cars/import with CSV should store every row across several batches")
+    void testImportCsvShouldStoreAllRows() throws Exception {
+        StringBuilder csv = new StringBuilder("brand,model,productionYear,mileage,price,status,color,horsepower,fuelType,transmission\n");
+        for (int i = 0; i < 1200; i++) {
+            csv.append("Skoda,Octavia ").append(i).append(",2019,40000,15000,AVAILABLE,White,150,DIESEL,MANUAL\n");
+        }
+
+        mockMvc.perform(post("/api/cars/import")
+                        .contentType("text/csv")
+                        .content(csv.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1200))
+                .andExpect(jsonPath("$.failed").value(0));
+
+        assertEquals(1200, carRepository.count());
+    }
+
+    @Test
+    @DisplayName("GET /api/cars/export should stream NDJSON filtered by status")
+    void testExportNdjsonShouldStreamFilteredCars() throws Exception {
+        Car sold = buildValidCar("Audi", "A6");
+        sold.setStatus(CarStatus.SOLD);
+        carRepository.saveAll(List.of(buildValidCar("Kia", "Rio"), sold, buildValidCar("BMW", "X5")));
+
+        MvcResult result = mockMvc.perform(get("/api/cars/export").param("status", "AVAILABLE"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals("Rio", objectMapper.readTree(lines.get(0)).get("model").asText());
+        assertEquals("X5", objectMapper.readTree(lines.get(1)).get("model").asText());
+    }
+
+    @Test
+    @DisplayName("GET /api/cars/export?format=CSV with Accept-Encoding: gzip should return compressed CSV")
+    void testExportCsvShouldBeGzipped() throws Exception {
+        carRepository.save(buildValidCar("Kia", "Rio"));
+
+        MvcResult result = mockMvc.perform(get("/api/cars/export")
+                        .param("format", "CSV")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] compressed = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            List<String> lines = new String(gzip.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+            assertEquals(2, lines.size());
+            assertTrue(lines.get(0).startsWith("id,brand,model"));
+            assertTrue(lines.get(1).contains(",Kia,Rio,"));
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/cars/changes should return inserts and updates after the cursor")
+    void testGetChangesShouldFollowTheCursor() throws Exception {
+        carRepository.save(buildValidCar("Audi", "A6"));
+        Car rio = carRepository.save(buildValidCar("Kia", "Rio"));
+        carRepository.save(buildValidCar("BMW", "X5"));
+
+        MvcResult firstPage = mockMvc.perform(get("/api/cars/changes").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[*].car.model", contains("A6", "Rio")))
+                .andExpect(jsonPath("$.changes[*].type", contains("CREATED", "CREATED")))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn();
+        String cursor = objectMapper.readTree(firstPage.getResponse().getContentAsString()).get("nextCursor").asText();
 
+        MvcResult secondPage = mockMvc.perform(get("/api/cars/changes").param("size", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[*].car.model", contains("X5")))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andReturn();
+        cursor = objectMapper.readTree(secondPage.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        // Без новых изменений курсор не двигается
+        mockMvc.perform(get("/api/cars/changes").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(0)))
+                .andExpect(jsonPath("$.nextCursor").value(cursor));
+
+        rio.setPrice(25000);
+        carRepository.save(rio);
+
+        mockMvc.perform(get("/api/cars/changes").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(1)))
+                .andExpect(jsonPath("$.changes[0].type").value("UPDATED"))
+                .andExpect(jsonPath("$.changes[0].id").value(rio.getId()))
+                .andExpect(jsonPath("$.changes[0].car.price").value(25000));
+
+        mockMvc.perform(get("/api/cars/changes").param("cursor", "broken"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/cars/changes should not move the cursor past changes newer than the safety window")
+    void testGetChangesShouldStopAtTheSafetyWindow() throws Exception {
+        Car audi = carRepository.save(buildValidCar("Audi", "A6"));
+        Car rio = carRepository.save(buildValidCar("Kia", "Rio"));
+        // Запись «из будущего» ведёт себя как ещё не закоммиченная: её пока нельзя отдавать и нельзя обгонять курсором
+        jdbcTemplate.update("UPDATE cars SET updated_at = ? WHERE id = ?", LocalDateTime.now().plusMinutes(1), rio.getId());
+
+        MvcResult page = mockMvc.perform(get("/api/cars/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[*].id", contains(audi.getId().intValue())))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andReturn();
+        String cursor = objectMapper.readTree(page.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        jdbcTemplate.update("UPDATE cars SET updated_at = ? WHERE id = ?", LocalDateTime.now(), rio.getId());
+
+        mockMvc.perform(get("/api/cars/changes").param("cursor", cursor))
+                .andExpect(jsonPath("$.changes[*].id", contains(rio.getId().intValue())));
+    }
+
+    @Test
+    @DisplayName("DELETE /api/cars/{id} should only flag the car, hide it and report it in /changes until purged")
+    void testDeleteCarShouldSoftDeleteAndPurgeLater() throws Exception {
+        Car rio = carRepository.save(buildValidCar("Kia", "Rio"));
+        carRepository.save(buildValidCar("BMW", "X5"));
+
+        mockMvc.perform(delete("/api/cars/{id}", rio.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/cars/{id}", rio.getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/cars"))
+                .andExpect(jsonPath("$[*].model", contains("X5")));
+        mockMvc.perform(delete("/api/cars/{id}", rio.getId()))
+                .andExpect(status().isNotFound());
+
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT deleted FROM cars WHERE id = ?", Boolean.class, rio.getId()));
+
+        mockMvc.perform(get("/api/cars/changes"))
+                .andExpect(jsonPath("$.changes[*].type", contains("CREATED", "DELETED")))
+                .andExpect(jsonPath("$.changes[1].id").value(rio.getId()))
+                .andExpect(jsonPath("$.changes[1].car").doesNotExist());
+
+        // Свежие надгробия очистка не трогает
+        assertEquals(0, carTombstonePurgeJob.purgeDeletedBefore(LocalDateTime.now().minusDays(1)));
+        assertEquals(1, carTombstonePurgeJob.purgeDeletedBefore(LocalDateTime.now().plusSeconds(1)));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cars", Integer.class));
+
+        // delete* репозитория — то же мягкое удаление, и тоже в ленте
+        carRepository.deleteAll();
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cars WHERE deleted", Integer.class));
+        mockMvc.perform(get("/api/cars/changes"))
+                .andExpect(jsonPath("$.changes[*].type", contains("DELETED")));
+
+        // *InBatch тоже помечают записи и сбрасывают кэш findById
+        Car audi = carRepository.save(buildValidCar("Audi", "A6"));
+        Car bmw = carRepository.save(buildValidCar("BMW", "X5"));
+        Car skoda = carRepository.save(buildValidCar("Skoda", "Octavia"));
+        assertTrue(carRepository.findById(audi.getId()).isPresent());
+        carRepository.deleteAllByIdInBatch(List.of(audi.getId()));
+        carRepository.deleteAllInBatch(List.of(bmw));
+        assertTrue(carRepository.findById(audi.getId()).isEmpty());
+        assertTrue(carRepository.findById(skoda.getId()).isPresent());
+        carRepository.deleteAllInBatch();
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cars WHERE deleted", Integer.class));
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cars", Integer.class));
+        mockMvc.perform(get("/api/cars/changes"))
+                .andExpect(jsonPath("$.changes[*].type", contains("DELETED", "DELETED", "DELETED", "DELETED")));
+    }
+
+    @Test
+    @DisplayName("GET /api/cars/batch should return cars in request order with not-found markers")
+    void testGetCarsByIdsShouldKeepRequestOrder() throws Exception {
+        Car audi = carRepository.save(buildValidCar("Audi", "A6"));
+        Car kia = carRepository.save(buildValidCar("Kia", "Rio"));
+        long missingId = kia.getId() + 1000;
+
+        mockMvc.perform(get("/api/cars/batch")
+                        .param("ids", kia.getId() + "," + missingId + "," + audi.getId() + "," + kia.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[*].found", contains(true, false, true, true)))
+                .andExpect(jsonPath("$[0].car.model").value("Rio"))
+                .andExpect(jsonPath("$[1].id").value(missingId))
+                .andExpect(jsonPath("$[1].car").doesNotExist())
+                .andExpect(jsonPath("$[2].car.model").value("A6"))
+                .andExpect(jsonPath("$[3].car.model").value("Rio"));
+
+        String tooMany = String.join(",", Collections.nCopies(501, "1"));
+        mockMvc.perform(get("/api/cars/batch").param("ids", tooMany))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors").isArray());
+    }
+
+    @Test
+    @DisplayName("GET /api/cars/{id} with a matching If-None-Match should return 304 without a body")
+    void testGetCarByIdWithMatchingEtagShouldReturn304() throws Exception {
+        Car car = carRepository.save(buildValidCar("Kia", "Rio"));
+
+        String etag = mockMvc.perform(get("/api/cars/{id}", car.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/cars/{id}", car.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        String searchEtag = mockMvc.perform(get("/api/cars/search").param("brand", "Kia"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/cars/search").param("brand", "Kia").header("If-None-Match", searchEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("PUT and DELETE with a stale If-Match should return 412 and keep the car unchanged")
+    void testWritesWithStaleIfMatchShouldReturn412() throws Exception {
+        Car car = carRepository.save(buildValidCar("Kia", "Rio"));
+        String etag = mockMvc.perform(get("/api/cars/{id}", car.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        car.setPrice(25000);
+        String newEtag = mockMvc.perform(put("/api/cars/{id}", car.getId())
+                        .header("If-Match", etag)
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(car)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1))
+                .andExpect(jsonPath("$.createdAt").exists())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, newEtag);
+
+        // Второй клиент всё ещё держит старый ETag
+        car.setPrice(1000);
+        mockMvc.perform(put("/api/cars/{id}", car.getId())
+                        .header("If-Match", etag)
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(car)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/cars/{id}", car.getId()).header("If-Match", etag))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/cars/{id}", car.getId()))
+                .andExpect(jsonPath("$.price").value(25000));
+
+        mockMvc.perform(delete("/api/cars/{id}", car.getId()).header("If-Match", newEtag))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @DisplayName("POST /api/cars should reject a client-supplied id and ignore a client-supplied version")
+    void testPostWithIdOrVersionShouldNotReachThePersistenceLayer() throws Exception {
+        Car existing = carRepository.save(buildValidCar("Kia", "Rio"));
+        long before = carRepository.count();
+
+        ObjectNode withId = objectMapper.valueToTree(buildValidCar("Audi", "A6"));
+        withId.put("id", existing.getId());
+        mockMvc.perform(post("/api/cars")
+                        .contentType("application/json")
+                        .content(withId.toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors", hasSize(1)));
+
+        withId.put("id", existing.getId() + 1000);
+        mockMvc.perform(post("/api/cars")
+                        .contentType("application/json")
+                        .content(withId.toString()))
+                .andExpect(status().isBadRequest());
+        assertEquals(before, carRepository.count());
+
+        // version только для чтения: у новой машины она всё равно начинается с 0
+        ObjectNode withVersion = objectMapper.valueToTree(buildValidCar("Audi", "A6"));
+        withVersion.put("version", 7);
+        String id = mockMvc.perform(post("/api/cars")
+                        .contentType("application/json")
+                        .content(withVersion.toString()))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/api/cars/{id}", id))
+                .andExpect(header().string("ETag", "\"" + id + "-0\""))
+                .andExpect(jsonPath("$.version").value(0));
+    }
+
+    @Test
+    @DisplayName("GET /api/cars/stats should follow adds, updates and deletes")
+    void testStatsShouldFollowWrites() throws Exception {
+        Car kia = buildValidCar("Kia", "Rio");
+        kia.setPrice(10000);
+        String kiaId = mockMvc.perform(post("/api/cars")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(kia)))
+                .andReturn().getResponse().getContentAsString();
+
+        Car bmw = buildValidCar("BMW", "X5");
+        bmw.setPrice(50000);
+        bmw.setFuelType(FuelType.PETROL);
+        mockMvc.perform(post("/api/cars")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(bmw)));
+
+        mockMvc.perform(get("/api/cars/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.facets.brand.Kia").value(1))
+                .andExpect(jsonPath("$.facets.fuelType.DIESEL").value(1))
+                .andExpect(jsonPath("$.facets.fuelType.PETROL").value(1))
+                .andExpect(jsonPath("$.price.min").value(10000))
+                .andExpect(jsonPath("$.price.max").value(50000))
+                .andExpect(jsonPath("$.price.avg").value(30000.0))
+                .andExpect(jsonPath("$.price.p50").value(10000))
+                .andExpect(jsonPath("$.price.p99").value(50000));
+
+        // Новая машина попадает в сводку без пересчёта
+        mockMvc.perform(post("/api/cars")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(buildValidCar("Kia", "Ceed"))));
+        mockMvc.perform(get("/api/cars/stats"))
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.facets.brand.Kia").value(2));
+
+        kia.setStatus(CarStatus.SOLD);
+        mockMvc.perform(put("/api/cars/{id}", kiaId)
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(kia)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/cars/stats"))
+                .andExpect(jsonPath("$.facets.status.SOLD").value(1))
+                .andExpect(jsonPath("$.facets.status.AVAILABLE").value(2));
+
+        mockMvc.perform(delete("/api/cars/{id}", kiaId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/cars/stats"))
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.facets.status.SOLD").doesNotExist())
+                .andExpect(jsonPath("$.price.min").value(30000));
+
+        // Фоновая сверка с БД не считает уже применённые события второй раз и подхватывает записи мимо API
+        jdbcTemplate.update("UPDATE cars SET status = 'SOLD' WHERE brand = 'BMW'");
+        carStatsService.reconcile();
+        mockMvc.perform(get("/api/cars/stats"))
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.facets.brand.Kia").value(1))
+                .andExpect(jsonPath("$.facets.status.SOLD").value(1))
+                .andExpect(jsonPath("$.price.p50").value(30000))
+                .andExpect(jsonPath("$.price.max").value(50000));
+    }
+
+    @Test
+    @DisplayName("GET /api/cars/fulltext should rank exact, prefix and misspelt matches and follow writes")
+    void testFullTextSearchShouldTolerateTyposAndFollowWrites() throws Exception {
+        Car camry = carRepository.save(new Car("Toyota", "Camry", 2020, 35000, 18000, "AVAILABLE", "Black", 200, "PETROL", "AUTOMATIC"));
+        carRepository.save(new Car("Toyota", "Corolla", 2019, 50000, 15000, "AVAILABLE", "White", 130, "PETROL", "MANUAL"));
+        carRepository.save(new Car("BMW", "X5", 2018, 78000, 28000, "SOLD", "Black", 265, "DIESEL", "AUTOMATIC"));
+        carSearchIndex.rebuild();
+
+        mockMvc.perform(get("/api/cars/fulltext").param("q", "toyta camry"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].model").value("Camry"))
+                .andExpect(jsonPath("$[1].model").value("Corolla"));
+
+        mockMvc.perform(get("/api/cars/fulltext").param("q", "BLACK"))
+                .andExpect(jsonPath("$[*].model", containsInAnyOrder("Camry", "X5")));
+
+        mockMvc.perform(get("/api/cars/suggest").param("prefix", "c"))
+                .andExpect(jsonPath("$", containsInAnyOrder("Camry", "Corolla")));
+
+        // Записи через API сразу попадают в индекс
+        mockMvc.perform(post("/api/cars")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(buildValidCar("Kia", "Sportage"))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(delete("/api/cars/{id}", camry.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/cars/fulltext").param("q", "sportag"))
+                .andExpect(jsonPath("$[0].brand").value("Kia"));
+        mockMvc.perform(get("/api/cars/fulltext").param("q", "camry"))
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        mockMvc.perform(get("/api/cars/fulltext").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,253 @@
+package de.ait.controllers;
+
+import de.ait.model.Car;
+import de.ait.repository.CarRepository;
+import de.ait.service.CarQueryCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:searchprotectiondb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.cars.rate-limit.enabled=true",
+        "app.cars.rate-limit.capacity=3",
+        "app.cars.rate-limit.refill-per-second=0.01"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class CarSearchProtectionIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CarQueryCoalescer carQueryCoalescer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM cars");
+        carRepository.save(new Car("BMW", "X5", 2018, 78000, 28000, "AVAILABLE", "Black", 265, "DIESEL", "AUTOMATIC"));
+    }
+
+    @Test
+    @DisplayName("Search requests over the client's token bucket should get 429 with Retry-After")
+    void testSearchOverLimitShouldReturn429() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/cars/search").param("brand", "BMW").with(client("10.0.0.1")))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/cars/by-price").param("min", "1").param("max", "50000").with(client("10.0.0.1")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.errors", hasSize(1)));
+
+        // У другого клиента своя корзина, а остальные эндпоинты не ограничиваются
+        mockMvc.perform(get("/api/cars/search").param("brand", "BMW").with(client("10.0.0.2")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/cars").with(client("10.0.0.1")))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("cars.rate-limit.requests").tag("outcome", "rejected").counter().count())
+                .isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Identical concurrent queries should run once and share the result")
+    void testIdenticalConcurrentQueriesShouldBeCoalesced() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        double joinedBefore = joinedCount();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<List<Car>> leader = executor.submit(() -> carQueryCoalescer.coalesce("search:BMW", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return carRepository.findByBrand("BMW");
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            List<Future<List<Car>>> followers = List.of(
+                    executor.submit(() -> carQueryCoalescer.coalesce("search:BMW", () -> fail(executions))),
+                    executor.submit(() -> carQueryCoalescer.coalesce("search:BMW", () -> fail(executions))),
+                    executor.submit(() -> carQueryCoalescer.coalesce("search:BMW", () -> fail(executions))));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (joinedCount() < joinedBefore + 3 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            List<Car> result = leader.get(5, TimeUnit.SECONDS);
+            assertThat(result).extracting(Car::getModel).containsExactly("X5");
+            for (Future<List<Car>> follower : followers) {
+                assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(result);
+            }
+            assertThat(executions).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Завершённый запрос не кэшируется: следующий вызов снова идёт в БД
+        carQueryCoalescer.coalesce("search:BMW", () -> {
+            executions.incrementAndGet();
+            return carRepository.findByBrand("BMW");
+        });
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Concurrent /api/cars/search requests for one brand should run findByBrand once")
+    void testConcurrentSearchRequestsShouldRunOneQuery() throws Exception {
+        int requests = 4;
+        double joinedBefore = joinedCount();
+        double queriesBefore = findByBrandCount();
+        SlowFindByBrand.hold();
+
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<?>> responses = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                // У каждого запроса свой клиент, чтобы не упереться в rate limit
+                String client = "10.0.1." + i;
+                responses.add(executor.submit(() -> {
+                    mockMvc.perform(get("/api/cars/search").param("brand", "BMW").with(client(client)))
+                            .andExpect(status().isOk())
+                            .andExpect(jsonPath("$[*].model", contains("X5")));
+                    return null;
+                }));
+            }
+
+            // Первый запрос держит findByBrand, пока остальные не присоединятся к нему
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (joinedCount() < joinedBefore + requests - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            SlowFindByBrand.release();
+
+            for (Future<?> response : responses) {
+                response.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            SlowFindByBrand.release();
+            executor.shutdownNow();
+        }
+
+        assertThat(joinedCount()).isEqualTo(joinedBefore + requests - 1);
+        assertThat(findByBrandCount()).isEqualTo(queriesBefore + 1);
+    }
+
+    private double findByBrandCount() {
+        return meterRegistry.find("cars.repository").tag("method", "findByBrand").timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+    private double joinedCount() {
+        return meterRegistry.get("cars.coalescing.requests").tag("outcome", "joined").counter().count();
+    }
+
+    private static List<Car> fail(AtomicInteger executions) {
+        executions.incrementAndGet();
+        return List.of();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static RequestPostProcessor client(String remoteAddr) {
+        return request -> {
+            request.setRemoteAddr(remoteAddr);
+            return request;
+        };
+    }
+
+    // Задерживает findByBrand до release(), чтобы одновременные запросы гарантированно пересеклись
+    @Aspect
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    static class SlowFindByBrand {
+
+        private static volatile CountDownLatch gate;
+
+        static void hold() {
+            gate = new CountDownLatch(1);
+        }
+
+        static void release() {
+            CountDownLatch current = gate;
+            gate = null;
+            if (current != null) {
+                current.countDown();
+            }
+        }
+
+        @Around("execution(* de.ait.repository.CarRepository.findByBrand(..))")
+        public Object delay(ProceedingJoinPoint joinPoint) throws Throwable {
+            CountDownLatch current = gate;
+            if (current != null) {
+                await(current);
+            }
+            return joinPoint.proceed();
+        }
+    }
+
+    @TestConfiguration
+    static class SlowFindByBrandConfig {
+
+        @Bean
+        SlowFindByBrand slowFindByBrand() {
+            return new SlowFindByBrand();
+        }
+    }
+}
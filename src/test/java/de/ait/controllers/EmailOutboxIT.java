@@ -0,0 +1,253 @@
+package de.ait.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.ait.dto.CarOfferEmailRequest;
+import de.ait.enums.EmailType;
+import de.ait.enums.OutboxStatus;
+import de.ait.model.Car;
+import de.ait.model.EmailOutboxMessage;
+import de.ait.repository.CarRepository;
+import de.ait.repository.EmailCampaignRepository;
+import de.ait.repository.EmailOutboxRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.mail.from=dealer@test.local",
+        "spring.datasource.url=jdbc:h2:mem:outboxdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.mail.outbox.dispatcher.enabled=true",
+        "app.mail.outbox.poll-interval=100ms",
+        "app.mail.outbox.max-attempts=2",
+        "app.mail.outbox.initial-backoff=100ms",
+        "management.health.mail.enabled=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class EmailOutboxIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private EmailCampaignRepository emailCampaignRepository;
+
+    @MockitoBean
+    private JavaMailSender javaMailSender;
+
+    @BeforeEach
+    void setUp() {
+        emailOutboxRepository.deleteAll();
+        when(javaMailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+    }
+
+    private CarOfferEmailRequest buildRequest(Long carId) {
+        CarOfferEmailRequest request = new CarOfferEmailRequest();
+        request.setEmail("client@test.local");
+        request.setClientName("Anna");
+        request.setCarId(carId);
+        request.setOfferPrice(20000);
+        return request;
+    }
+
+    private EmailOutboxMessage awaitFinalStatus() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            List<EmailOutboxMessage> messages = emailOutboxRepository.findAll();
+            if (messages.size() == 1 && messages.getFirst().getStatus() != OutboxStatus.PENDING
+                    && messages.getFirst().getStatus() != OutboxStatus.SENDING) {
+                return messages.getFirst();
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Outbox message was not processed in time");
+    }
+
+    private void awaitCampaignFinished(String campaignId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            if (emailCampaignRepository.findById(campaignId).orElseThrow().getFinishedAt() != null) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Campaign " + campaignId + " was not processed in time");
+    }
+
+    @Test
+    @DisplayName("POST /api/email/car-offer should return 202 right away and send the email in the background")
+    void carOfferShouldBeQueuedAndSent() throws Exception {
+        Car car = carRepository.save(new Car("BMW", "X5", 2020, 20000, 30000, "AVAILABLE", "Black", 250, "PETROL", "AUTOMATIC"));
+
+        mockMvc.perform(post("/api/email/car-offer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(buildRequest(car.getId()))))
+                .andExpect(status().isAccepted());
+
+        EmailOutboxMessage message = awaitFinalStatus();
+        assertEquals(OutboxStatus.SENT, message.getStatus());
+        verify(javaMailSender).send(any(MimeMessage.class));
+    }
+
+    @Test
+    @DisplayName("Outbox email for a missing car should go straight to dead letter")
+    void carOfferForMissingCarShouldBeDeadLettered() throws Exception {
+        mockMvc.perform(post("/api/email/car-offer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(buildRequest(Long.MAX_VALUE))))
+                .andExpect(status().isAccepted());
+
+        EmailOutboxMessage message = awaitFinalStatus();
+        assertEquals(OutboxStatus.DEAD, message.getStatus());
+        assertEquals(1, message.getAttempts());
+        verify(javaMailSender, never()).send(any(MimeMessage.class));
+    }
+
+    @Test
+    @DisplayName("POST /api/email/car-offer/bulk/csv should queue the campaign and send it in batches in the background")
+    void carOfferCampaignFromCsvShouldBeQueuedAndSentInBatches() throws Exception {
+        Car car = carRepository.save(new Car("Audi", "A6", 2020, 50000, 22000, "AVAILABLE", "Gray", 220, "PETROL", "AUTOMATIC"));
+
+        // Второе письмо отклоняется и в батче, и при каждой отдельной попытке
+        doAnswer(invocation -> {
+            MimeMessage[] batch = (MimeMessage[]) invocation.getRawArguments()[0];
+            throw new MailSendException(Map.of(batch[batch.length > 1 ? 1 : 0], new MessagingException("Mailbox unavailable")));
+        }).when(javaMailSender).send(any(MimeMessage[].class));
+
+        MockMultipartFile csv = new MockMultipartFile("file", "leads.csv", "text/csv", """
+                email,clientName
+                anna@test.local,Anna
+                "bob@test.local","Bob"
+                carl@test.local,Carl
+                """.getBytes(StandardCharsets.UTF_8));
+
+        String response = mockMvc.perform(multipart("/api/email/car-offer/bulk/csv")
+                        .file(csv)
+                        .param("carId", car.getId().toString())
+                        .param("offerPrice", "21000"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.recipients").value(3))
+                .andExpect(jsonPath("$.batches").value(1))
+                .andReturn().getResponse().getContentAsString();
+        String campaignId = objectMapper.readTree(response).get("campaignId").asText();
+
+        awaitCampaignFinished(campaignId);
+
+        // все три письма ушли одним вызовом — через одно SMTP-соединение, а отклонённое повторено отдельно max-attempts раз
+        verify(javaMailSender, times(3)).send(any(MimeMessage[].class));
+        verify(javaMailSender, never()).send(any(MimeMessage.class));
+        List<EmailOutboxMessage> retries = emailOutboxRepository.findAll().stream()
+                .filter(message -> message.getStatus() == OutboxStatus.DEAD)
+                .toList();
+        assertEquals(1, retries.size());
+        assertEquals(campaignId, retries.getFirst().getCampaignId());
+        assertEquals(2, retries.getFirst().getAttempts());
+
+        mockMvc.perform(get("/api/email/car-offer/bulk/" + campaignId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.sent").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.pending").value(0))
+                .andExpect(jsonPath("$.startedAt").exists())
+                .andExpect(jsonPath("$.finishedAt").exists())
+                .andExpect(jsonPath("$.sentPerSecond").isNumber())
+                .andExpect(jsonPath("$.recipients[*].email", contains("anna@test.local", "bob@test.local", "carl@test.local")))
+                .andExpect(jsonPath("$.recipients[*].status", contains("SENT", "FAILED", "SENT")))
+                .andExpect(jsonPath("$.recipients[1].error", containsString("Mailbox unavailable")))
+                .andExpect(jsonPath("$.recipients[0].error").doesNotExist());
+
+        mockMvc.perform(get("/api/email/car-offer/bulk/" + UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("POST /api/email/car-offer/bulk/csv should reject invalid recipients like the JSON endpoint")
+    void carOfferCampaignFromCsvShouldValidateRecipients() throws Exception {
+        Car car = carRepository.save(new Car("Audi", "A4", 2019, 60000, 18000, "AVAILABLE", "White", 190, "DIESEL", "MANUAL"));
+
+        MockMultipartFile csv = new MockMultipartFile("file", "leads.csv", "text/csv", """
+                anna@test.local,Anna
+                not-an-email,Bob
+                carl@test.local
+                """.getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/api/email/car-offer/bulk/csv")
+                        .file(csv)
+                        .param("carId", car.getId().toString())
+                        .param("offerPrice", "17000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors", hasSize(2)))
+                .andExpect(jsonPath("$.errors[*]", hasItem(startsWith("recipients[1].email"))))
+                .andExpect(jsonPath("$.errors[*]", hasItem(startsWith("recipients[2].clientName"))));
+
+        assertEquals(0, emailOutboxRepository.count());
+    }
+
+    @Test
+    @DisplayName("A worker whose claim was lost should not overwrite the new owner's state")
+    void staleWorkerShouldNotOverwriteReclaimedMessage() {
+        LocalDateTime firstClaim = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).minusMinutes(10);
+        LocalDateTime secondClaim = firstClaim.plusMinutes(6);
+
+        EmailOutboxMessage message = new EmailOutboxMessage(EmailType.CAR_OFFER, "{}", firstClaim);
+        message.setStatus(OutboxStatus.SENDING);
+        message.setUpdatedAt(secondClaim);
+        message = emailOutboxRepository.save(message);
+
+        // Первый воркер пришёл с результатом после того, как сообщение забрали заново
+        assertEquals(0, emailOutboxRepository.finish(message.getId(), firstClaim, OutboxStatus.DEAD, 1,
+                "late", firstClaim, LocalDateTime.now()));
+        assertEquals(0, emailOutboxRepository.unclaim(message.getId(), firstClaim, LocalDateTime.now()));
+        assertEquals(OutboxStatus.SENDING, emailOutboxRepository.findById(message.getId()).orElseThrow().getStatus());
+
+        assertEquals(1, emailOutboxRepository.finish(message.getId(), secondClaim, OutboxStatus.SENT, 0,
+                null, firstClaim, LocalDateTime.now()));
+        assertEquals(OutboxStatus.SENT, emailOutboxRepository.findById(message.getId()).orElseThrow().getStatus());
+    }
+}
@@ -0,0 +1,57 @@
+package de.ait.controllers;
+
+import de.ait.model.Car;
+import de.ait.repository.CarRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:observabilitydb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+public class ObservabilityIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Test
+    @DisplayName("Prometheus endpoint should expose endpoint, repository, cache and template metrics")
+    void testPrometheusShouldExposeApplicationMetrics() throws Exception {
+        Car car = carRepository.save(new Car("Skoda", "Octavia", 2021, 30000, 21000, "AVAILABLE", "Gray", 150, "DIESEL", "MANUAL"));
+        mockMvc.perform(get("/api/cars/" + car.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/cars/search").param("brand", "Skoda")).andExpect(status().isOk());
+
+        String metrics = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(line(metrics, "http_server_requests_seconds_count{", "uri=\"/api/cars/{id}\"")).isNotNull();
+        assertThat(line(metrics, "cars_repository_seconds_count{", "method=\"findByBrand\"")).isNotNull();
+        assertThat(line(metrics, "cars_repository_rows_sum{", "method=\"findByBrand\"")).endsWith(" 1.0");
+        assertThat(line(metrics, "cache_gets_total{", "cache=\"cars\"")).isNotNull();
+        // Шаблоны рендерятся при прогреве на старте
+        assertThat(line(metrics, "email_template_render_seconds_count{", "template=\"car-offer-mail\"")).isNotNull();
+    }
+
+    private static String line(String metrics, String prefix, String label) {
+        return Arrays.stream(metrics.split("\n"))
+                .filter(line -> line.startsWith(prefix) && line.contains(label))
+                .findFirst()
+                .orElse(null);
+    }
+}
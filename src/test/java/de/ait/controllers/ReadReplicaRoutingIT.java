@@ -0,0 +1,169 @@
+package de.ait.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.ait.config.ReplicaLagMonitor;
+import de.ait.model.Car;
+import de.ait.dto.CarSearchHit;
+import de.ait.repository.CarRepository;
+import de.ait.service.CarSearchIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Две in-memory H2: "репликация" — снимок primary через SCRIPT и RUNSCRIPT на реплике
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routingprimary;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=jdbc:h2:mem:routingreplica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.datasource.replica.max-lag=0s",
+        "app.datasource.replica.lag-check-interval=1h",
+        "spring.cache.type=none"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReadReplicaRoutingIT {
+
+    private static final String SNAPSHOT = "target/read-replica-routing-it.sql";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CarSearchIndex carSearchIndex;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+
+        primary.update("DELETE FROM cars");
+        carRepository.save(new Car("BMW", "X5", 2018, 78000, 28000, "AVAILABLE", "Black", 265, "DIESEL", "AUTOMATIC"));
+        replicate();
+        replicaLagMonitor.check();
+    }
+
+    @Test
+    @DisplayName("Reads should go to an up-to-date replica and writes to the primary")
+    void testReadsShouldUseReplicaAndWritesPrimary() throws Exception {
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+
+        // Пул реплики read-only, поэтому отметку ставим в обход него
+        new JdbcTemplate(replicaWriter()).update("UPDATE cars SET model = 'X5 (replica)'");
+
+        mockMvc.perform(get("/api/cars/search").param("brand", "BMW"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].model", contains("X5 (replica)")));
+
+        Car audi = new Car("Audi", "A6", 2021, 12000, 41000, "AVAILABLE", "White", 245, "PETROL", "AUTOMATIC");
+        mockMvc.perform(post("/api/cars")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(audi)))
+                .andExpect(status().isCreated());
+
+        assertThat(primary.queryForObject("SELECT COUNT(*) FROM cars", Long.class)).isEqualTo(2);
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM cars", Long.class)).isEqualTo(1);
+        assertThat(meterRegistry.get("datasource.read.routing").tag("target", "replica").counter().count())
+                .isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Reads should fall back to the primary while the replica lags and return once it catches up")
+    void testLaggingReplicaShouldFallBackToPrimary() throws Exception {
+        carRepository.save(new Car("Audi", "A6", 2021, 12000, 41000, "AVAILABLE", "White", 245, "PETROL", "AUTOMATIC"));
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        mockMvc.perform(get("/api/cars/search").param("brand", "Audi"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].model", contains("A6")));
+
+        replicate();
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+        new JdbcTemplate(replicaWriter()).update("UPDATE cars SET model = 'A6 (replica)' WHERE brand = 'Audi'");
+        mockMvc.perform(get("/api/cars/search").param("brand", "Audi"))
+                .andExpect(jsonPath("$[*].model", contains("A6 (replica)")));
+    }
+
+    @Test
+    @DisplayName("Search index rebuild should read the primary even while the replica is usable")
+    void testSearchIndexRebuildShouldReadPrimary() {
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+        new JdbcTemplate(replicaWriter()).update("UPDATE cars SET model = 'Replica'");
+
+        carSearchIndex.rebuild();
+
+        assertThat(carSearchIndex.search("X5", 10)).extracting(CarSearchHit::getModel).containsExactly("X5");
+        assertThat(carSearchIndex.search("Replica", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Lookups that fill the car cache should read the primary even while the replica is usable")
+    void testCacheFillingLookupsShouldReadPrimary() throws Exception {
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+        Long id = primary.queryForObject("SELECT id FROM cars", Long.class);
+        new JdbcTemplate(replicaWriter()).update("UPDATE cars SET model = 'X5 (replica)'");
+
+        mockMvc.perform(get("/api/cars/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.model").value("X5"));
+        mockMvc.perform(get("/api/cars/batch").param("ids", String.valueOf(id)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].car.model").value("X5"));
+    }
+
+    private void replicate() {
+        primary.execute("SCRIPT DROP TO '" + SNAPSHOT + "'");
+        JdbcTemplate writer = new JdbcTemplate(replicaWriter());
+        writer.execute("DROP ALL OBJECTS");
+        writer.execute("RUNSCRIPT FROM '" + SNAPSHOT + "'");
+    }
+
+    private static DataSource replicaWriter() {
+        return new DriverManagerDataSource(
+                "jdbc:h2:mem:routingreplica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+    }
+}
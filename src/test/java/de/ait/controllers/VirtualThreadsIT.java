@@ -0,0 +1,63 @@
+package de.ait.controllers;
+
+import de.ait.config.VirtualThreadPinningMonitor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:virtualthreadsdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "spring.threads.virtual.enabled=true"
+        })
+@ActiveProfiles("test")
+public class VirtualThreadsIT {
+
+    @Autowired
+    private ThreadPoolTaskExecutor emailOutboxExecutor;
+
+    @Autowired
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    @Test
+    @DisplayName("Outbox workers should run on virtual threads when virtual threads are enabled")
+    void testOutboxWorkersShouldBeVirtual() throws Exception {
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+        emailOutboxExecutor.execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+
+        assertThat(virtual.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Pinning monitor should count a virtual thread blocked inside synchronized")
+    void testPinningMonitorShouldCountPinnedThreads() throws Exception {
+        double before = pinningMonitor.pinnedCount();
+        Object monitor = new Object();
+
+        Thread.ofVirtual().start(() -> {
+            synchronized (monitor) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+
+        // JFR отдаёт события потоку с задержкой около секунды
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (pinningMonitor.pinnedCount() == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(pinningMonitor.pinnedCount()).isGreaterThan(before);
+    }
+}
@@ -0,0 +1,226 @@
+package de.ait.repository;
+
+import de.ait.dto.CarSearchCriteria;
+import de.ait.enums.CarStatus;
+import de.ait.enums.FuelType;
+import de.ait.model.Car;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Calls every CarRepository finder on a large table, captures the SQL Hibernate actually
+ * sends together with its bound parameters, runs EXPLAIN for each statement and fails as
+ * soon as one of them falls back to a full table scan.
+ */
+@SpringBootTest(properties = "spring.cache.type=none")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CarRepositoryQueryPlanIT {
+
+    private static final String SEED_BRAND_PREFIX = "Plan-";
+    private static final int SEED_ROWS = 20_000;
+    private static final long MISSING_ID = -1L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @BeforeAll
+    void seedLargeTable() {
+        jdbcTemplate.update("""
+                INSERT INTO cars (brand, model, production_year, mileage, price,
+                                  status, color, horsepower, fuel_type, transmission)
+                SELECT ? || MOD(X, 40), 'Model ' || MOD(X, 300), 1990 + MOD(X, 35), MOD(X * 7, 300000), 1000 + MOD(X * 13, 99000),
+                       CASE WHEN MOD(X, 5) = 0 THEN 'SOLD' ELSE 'AVAILABLE' END,
+                       'Color' || MOD(X, 25), 60 + MOD(X, 500),
+                       CASE MOD(X, 4) WHEN 0 THEN 'PETROL' WHEN 1 THEN 'DIESEL' WHEN 2 THEN 'HYBRID' ELSE 'ELECTRIC' END,
+                       CASE WHEN MOD(X, 2) = 0 THEN 'MANUAL' ELSE 'AUTOMATIC' END
+                FROM SYSTEM_RANGE(1, ?)
+                """, SEED_BRAND_PREFIX, SEED_ROWS);
+        jdbcTemplate.execute("ANALYZE TABLE cars");
+    }
+
+    @AfterAll
+    void removeSeededRows() {
+        jdbcTemplate.update("DELETE FROM cars WHERE brand LIKE ?", SEED_BRAND_PREFIX + "%");
+    }
+
+    Stream<Arguments> finders() {
+        LocalDateTime future = LocalDateTime.of(2030, 1, 1, 0, 0);
+        CarSearchCriteria brandAndPrice = new CarSearchCriteria();
+        brandAndPrice.setBrand("Plan-7");
+        brandAndPrice.setMinPrice(20000);
+        brandAndPrice.setMaxPrice(40000);
+        Car changes = new Car("Plan-7", "Model 1", 2020, 1000, 1, "AVAILABLE", "Black", 100, "PETROL", "MANUAL");
+
+        return Stream.of(
+                finder("findByBrand", repository -> repository.findByBrand("Plan-7")),
+                finder("findCarByStatus", repository -> repository.findCarByStatus(CarStatus.SOLD)),
+                finder("findByPriceBetween", repository -> repository.findByPriceBetween(20000, 21000)),
+                finder("findByColorIgnoreCase", repository -> repository.findByColorIgnoreCase("color7")),
+                finder("findByFuelType", repository -> repository.findByFuelType(FuelType.HYBRID)),
+                finder("findByHorsepowerBetween", repository -> repository.findByHorsepowerBetween(200, 210)),
+                finder("findById", repository -> repository.findById(100L)),
+                finder("existsCarById", repository -> repository.existsCarById(100L)),
+                finder("findByIdGreaterThanOrderByIdAsc",
+                        repository -> repository.findByIdGreaterThanOrderByIdAsc(100L, Limit.of(50))),
+                finder("findAll(spec): brand + price range",
+                        repository -> repository.findAll(CarSpecifications.matching(brandAndPrice), PageRequest.of(0, 20))),
+                finder("findAllById", repository -> repository.findAllById(List.of(101L, 202L, 303L, 404L))),
+                finder("findChangedSince", repository -> repository.findChangedSince(future, 100L, future.plusDays(1), Limit.of(50))),
+                finder("updateReturningPrevious", repository -> repository.updateReturningPrevious(MISSING_ID, changes, null, future)),
+                finder("softDeleteReturningPrevious", repository -> repository.softDeleteReturningPrevious(MISSING_ID, 3L, future)),
+                finder("softDeleteById", repository -> repository.softDeleteById(MISSING_ID, 3L, future)),
+                finder("softDeleteAllById", repository -> repository.softDeleteAllById(List.of(MISSING_ID, -2L), future)),
+                finder("purgeDeleted", repository -> repository.purgeDeleted(LocalDateTime.of(2000, 1, 1, 0, 0), 1000))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    @DisplayName("Каждый finder CarRepository должен использовать индекс, а не tableScan")
+    void finderShouldUseAnIndex(String finder, Consumer<CarRepository> call) {
+        List<RecordedStatement> statements = StatementRecorder.record(() -> call.accept(carRepository));
+        assertThat(statements).as("SQL sent by %s", finder).isNotEmpty();
+
+        for (RecordedStatement statement : statements) {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + explainable(statement.sql()), String.class,
+                    statement.parameters().toArray());
+
+            assertThat(plan)
+                    .as("plan of %s: %s", finder, statement.sql())
+                    .doesNotContain("tableScan")
+                    .containsPattern("/\\* PUBLIC\\.(IDX_CARS_|PRIMARY_KEY)");
+            if (statement.sql().toLowerCase().contains(" from cars ")
+                    && !finder.equals("findChangedSince") && !finder.equals("purgeDeleted")) {
+                // @SQLRestriction должен попасть в каждый запрос к живым машинам
+                assertThat(statement.sql()).as("SQL of %s", finder).containsIgnoringCase("deleted");
+            }
+        }
+    }
+
+    // EXPLAIN для OLD TABLE (...) показывает только обход дельта-таблицы, план самого UPDATE — внутри
+    private static String explainable(String sql) {
+        String prefix = "SELECT * FROM OLD TABLE (";
+        return sql.startsWith(prefix) ? sql.substring(prefix.length(), sql.length() - 1) : sql;
+    }
+
+    private static Arguments finder(String name, Consumer<CarRepository> call) {
+        return Arguments.of(name, call);
+    }
+
+    record RecordedStatement(String sql, List<Object> parameters) {
+    }
+
+    // Записывает SQL и параметры PreparedStatement'ов текущего потока, пока идёт record()
+    static final class StatementRecorder {
+
+        private static final ThreadLocal<List<RecordedStatement>> RECORDING = new ThreadLocal<>();
+
+        static List<RecordedStatement> record(Runnable call) {
+            List<RecordedStatement> statements = new ArrayList<>();
+            RECORDING.set(statements);
+            try {
+                call.run();
+            } finally {
+                RECORDING.remove();
+            }
+            return statements;
+        }
+
+        static DataSource wrap(DataSource dataSource) {
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return proxy(Connection.class, super.getConnection(), (target, method, args) -> {
+                        Object result = method.invoke(target, args);
+                        List<RecordedStatement> statements = RECORDING.get();
+                        if (statements != null && method.getName().equals("prepareStatement")) {
+                            return preparedStatement((PreparedStatement) result, (String) args[0], statements);
+                        }
+                        return result;
+                    });
+                }
+            };
+        }
+
+        private static PreparedStatement preparedStatement(PreparedStatement statement, String sql,
+                                                           List<RecordedStatement> statements) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return proxy(PreparedStatement.class, statement, (target, method, args) -> {
+                if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.put(index, method.getName().equals("setNull") ? null : args[1]);
+                } else if (method.getName().startsWith("execute")) {
+                    statements.add(new RecordedStatement(sql, new ArrayList<>(parameters.values())));
+                }
+                return method.invoke(target, args);
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                try {
+                    return handler.invoke(target, method, args);
+                } catch (InvocationTargetException exception) {
+                    throw exception.getCause();
+                }
+            });
+        }
+
+        @FunctionalInterface
+        private interface Handler<T> {
+            Object invoke(T target, Method method, Object[] args) throws Throwable;
+        }
+    }
+
+    @TestConfiguration
+    static class StatementRecorderConfig {
+
+        @Bean
+        static BeanPostProcessor statementRecordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                            ? StatementRecorder.wrap(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+}
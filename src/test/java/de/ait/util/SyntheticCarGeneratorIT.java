@@ -0,0 +1,66 @@
+package de.ait.util;
+
+import de.ait.model.Car;
+import de.ait.repository.CarRepository;
+import de.ait.validation.CarValidator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:generatordb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "app.cars.generator.enabled=true",
+        "app.cars.generator.count=300",
+        "app.cars.generator.batch-size=64"
+})
+@ActiveProfiles("test")
+public class SyntheticCarGeneratorIT {
+
+    @Autowired
+    private SyntheticCarGenerator generator;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private CarValidator carValidator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Generator should fill the table up to the target count and only top it up later")
+    void testGeneratorShouldTopUpToTargetCount() {
+        assertThat(countCars()).isEqualTo(300);
+
+        long before = countCars();
+        assertThat(generator.generate(before + 100)).isEqualTo(100);
+        assertThat(countCars()).isEqualTo(before + 100);
+
+        assertThat(generator.generate(before + 100)).isZero();
+    }
+
+    @Test
+    @DisplayName("Generated cars should be valid and spread over many brands")
+    void testGeneratedCarsShouldBeValid() {
+        List<Car> cars = carRepository.findAll();
+
+        assertThat(carValidator.validateAll(cars, new int[cars.size()])).isZero();
+        Set<String> brands = cars.stream().map(Car::getBrand).collect(Collectors.toSet());
+        assertThat(brands).hasSizeGreaterThan(8);
+        assertThat(cars).extracting(Car::getStatus).map(Enum::name).contains("AVAILABLE", "SOLD");
+    }
+
+    private long countCars() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cars WHERE deleted = FALSE", Long.class);
+    }
+}